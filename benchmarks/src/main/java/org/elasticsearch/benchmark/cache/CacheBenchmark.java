@@ -0,0 +1,106 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up keys in a {@link Cache} from several threads, the way the request and query caches are used. Most lookups go to a
+ * small set of popular keys while the others are spread over many keys that are rarely looked up again, as when scanning.
+ * Every iteration, warmup iterations included, starts with an empty cache and prints its hit rate at its end.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class CacheBenchmark {
+    private static final int NUM_KEYS = 1 << 20;
+
+    // Do NOT make any field final (even if it is not annotated with @Param)! See also
+    // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/JMHSample_10_ConstantFold.java
+    @Param({"false", "true"})
+    public boolean frequencyBasedAdmission = false;
+
+    @Param({"10000"})
+    public int maximumWeight = 10000;
+
+    private Cache<Integer, Integer> cache;
+
+    private int[] keys;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        keys = new int[NUM_KEYS];
+        for (int i = 0; i < keys.length; i++) {
+            if (random.nextInt(10) < 7) {
+                // popular keys, half as many as fit in the cache
+                keys[i] = random.nextInt(maximumWeight / 2);
+            } else {
+                keys[i] = maximumWeight + random.nextInt(100 * maximumWeight);
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createCache() {
+        cache = CacheBuilder.<Integer, Integer>builder()
+            .setMaximumWeight(maximumWeight)
+            .setFrequencyBasedAdmission(frequencyBasedAdmission)
+            .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printHitRate() {
+        Cache.CacheStats stats = cache.stats();
+        System.out.println(String.format(Locale.ROOT, "hit rate: %.3f", (double) stats.getHits() / (stats.getHits() + stats.getMisses())));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer computeIfAbsent() throws ExecutionException {
+        int key = keys[ThreadLocalRandom.current().nextInt(NUM_KEYS)];
+        return cache.computeIfAbsent(key, k -> k);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.grok;
+
+import org.elasticsearch.grok.Grok;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches a mix of syslog, apache access and unparseable lines against a grok expression that combines a number of the built-in
+ * patterns, the way the grok processor combines the alternatives of its <code>patterns</code> option. The patterns matching the
+ * lines come last, so that most lines first fail to match all other alternatives.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class GrokBenchmark {
+    private static final String[] PATTERNS = new String[] {
+        "HAPROXYHTTP", "HAPROXYTCP", "CATALINALOG", "TOMCATLOG", "RUBY_LOGGER", "RAILS3", "REDISLOG", "MONGO3_LOG", "NAGIOSLOGLINE",
+        "BACULA_LOGLINE", "BRO_HTTP", "ELB_ACCESS_LOG", "S3_ACCESS_LOG", "SYSLOGLINE", "COMBINEDAPACHELOG"
+    };
+
+    private static final int NUM_LINES = 1000;
+
+    // Do NOT make any field final (even if it is not annotated with @Param)! See also
+    // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/JMHSample_10_ConstantFold.java
+    @Param({"1", "5", "15"})
+    public int numPatterns = 15;
+
+    private Grok grok;
+
+    private String[] lines;
+
+    @Setup
+    public void setUp() {
+        StringBuilder combined = new StringBuilder();
+        for (int i = PATTERNS.length - numPatterns; i < PATTERNS.length; i++) {
+            if (combined.length() > 0) {
+                combined.append('|');
+            }
+            combined.append("(?:%{").append(PATTERNS[i]).append("})");
+        }
+        grok = new Grok(Grok.getBuiltinPatterns(), combined.toString());
+
+        Random random = new Random(42);
+        lines = new String[NUM_LINES];
+        for (int i = 0; i < lines.length; i++) {
+            int ip = random.nextInt(256);
+            switch (random.nextInt(3)) {
+                case 0:
+                    lines[i] = String.format(Locale.ROOT, "Mar 16 00:01:%02d evita postfix/smtpd[%d]: connect from " +
+                        "host%d.example.com[10.0.0.%d]", random.nextInt(60), random.nextInt(65536), random.nextInt(100), ip);
+                    break;
+                case 1:
+                    lines[i] = String.format(Locale.ROOT, "83.149.9.%d - - [17/May/2015:10:05:%02d +0000] " +
+                        "\"GET /images/%d.png HTTP/1.1\" 200 %d \"http://example.com/presentations/\" \"Mozilla/5.0 (X11; Linux x86_64)\"",
+                        ip, random.nextInt(60), random.nextInt(1000), random.nextInt(100000));
+                    break;
+                default:
+                    lines[i] = String.format(Locale.ROOT, "java.lang.IllegalStateException: unexpected state [%d] of component",
+                        random.nextInt(1000));
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public void captures(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(grok.captures(line));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.index.mapper;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.analysis.AnalyzerScope;
+import org.elasticsearch.index.analysis.IndexAnalyzers;
+import org.elasticsearch.index.analysis.NamedAnalyzer;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.indices.IndicesModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses flat log documents with 30 fields, the way they are parsed before being indexed. With <code>mapped</code> all fields
+ * are in the mapping, otherwise the mapping is not dynamic and has no fields, so every field takes the path of unknown fields.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class DocumentParserBenchmark {
+    private static final int NUM_FIELDS = 30;
+    private static final int NUM_DOCS = 1000;
+
+    // Do NOT make any field final (even if it is not annotated with @Param)! See also
+    // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/JMHSample_10_ConstantFold.java
+    @Param({"true", "false"})
+    public boolean mapped = true;
+
+    private DocumentMapper documentMapper;
+
+    private BytesReference[] docs;
+
+    private int current;
+
+    @Setup
+    public void setUp() throws IOException {
+        Settings settings = Settings.builder()
+            .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+            .build();
+        IndexSettings indexSettings = new IndexSettings(IndexMetaData.builder("index").settings(settings).build(), Settings.EMPTY);
+        NamedAnalyzer standard = new NamedAnalyzer("default", AnalyzerScope.INDEX, new StandardAnalyzer());
+        IndexAnalyzers indexAnalyzers = new IndexAnalyzers(indexSettings, standard, standard, standard,
+            Collections.emptyMap(), Collections.emptyMap());
+        MapperService mapperService = new MapperService(indexSettings, indexAnalyzers, NamedXContentRegistry.EMPTY,
+            new SimilarityService(indexSettings, null, Collections.emptyMap()),
+            new IndicesModule(Collections.emptyList()).getMapperRegistry(), () -> null);
+
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("_doc");
+        if (mapped) {
+            mapping.startObject("properties");
+            for (int i = 0; i < NUM_FIELDS; i++) {
+                mapping.startObject(fieldName(i)).field("type", fieldType(i)).endObject();
+            }
+            mapping.endObject();
+        } else {
+            mapping.field("dynamic", false);
+        }
+        mapping.endObject().endObject();
+        documentMapper = mapperService.merge("_doc", new CompressedXContent(BytesReference.bytes(mapping)),
+            MapperService.MergeReason.MAPPING_UPDATE);
+
+        Random random = new Random(42);
+        docs = new BytesReference[NUM_DOCS];
+        for (int doc = 0; doc < docs.length; doc++) {
+            XContentBuilder source = XContentFactory.jsonBuilder().startObject();
+            for (int i = 0; i < NUM_FIELDS; i++) {
+                switch (fieldType(i)) {
+                    case "long":
+                        source.field(fieldName(i), random.nextInt(100000));
+                        break;
+                    case "keyword":
+                        source.field(fieldName(i), "value-" + random.nextInt(100));
+                        break;
+                    default:
+                        source.field(fieldName(i), "GET /images/" + random.nextInt(1000) + ".png HTTP/1.1");
+                        break;
+                }
+            }
+            docs[doc] = BytesReference.bytes(source.endObject());
+        }
+    }
+
+    private static String fieldName(int i) {
+        return "field_" + i;
+    }
+
+    private static String fieldType(int i) {
+        switch (i % 3) {
+            case 0:
+                return "long";
+            case 1:
+                return "keyword";
+            default:
+                return "text";
+        }
+    }
+
+    @Benchmark
+    public ParsedDocument parse() {
+        BytesReference doc = docs[current];
+        current = (current + 1) % docs.length;
+        return documentMapper.parse(SourceToParse.source("index", "_doc", "1", doc, XContentType.JSON));
+    }
+}
@@ -106,7 +106,11 @@ public class AllocationBenchmark {
         "       10|     10|        2|    50",
         "      100|      1|        2|    50",
         "      100|      3|        2|    50",
-        "      100|     10|        2|    50"
+        "      100|     10|        2|    50",
+
+        // large clusters with 100k shards in total
+        "     1000|     50|        1|   100",
+        "    10000|      5|        1|   200"
     })
     public String indicesShardsReplicasNodes = "10|1|0|1";
 
@@ -0,0 +1,153 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.script;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.painless.PainlessScriptEngine;
+import org.elasticsearch.painless.spi.Whitelist;
+import org.elasticsearch.script.BucketAggregationScript;
+import org.elasticsearch.script.ExecutableScript;
+import org.elasticsearch.script.ScriptContext;
+import org.elasticsearch.script.ScriptEngine;
+import org.elasticsearch.script.expression.ExpressionScriptEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the script of a <code>bucket_script</code> aggregation on the buckets of a large histogram, once per bucket with a map of
+ * parameters the way the aggregation used to, and once for all buckets with {@link BucketAggregationScript}.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class BucketScriptBenchmark {
+    // Do NOT make any field final (even if it is not annotated with @Param)! See also
+    // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/JMHSample_10_ConstantFold.java
+    @Param({"expression", "painless"})
+    public String lang = "expression";
+
+    @Param({"100000"})
+    public int numBuckets = 100000;
+
+    private ExecutableScript.Factory executableFactory;
+
+    private BucketAggregationScript.Factory batchFactory;
+
+    private Map<String, Object> params;
+
+    private Map<String, double[]> variables;
+
+    private double[] results;
+
+    @Setup
+    public void setUp() {
+        ScriptEngine engine;
+        String source;
+        if ("painless".equals(lang)) {
+            Map<ScriptContext<?>, List<Whitelist>> contexts = new HashMap<>();
+            contexts.put(ExecutableScript.AGGS_CONTEXT, Whitelist.BASE_WHITELISTS);
+            contexts.put(BucketAggregationScript.CONTEXT, Whitelist.BASE_WHITELISTS);
+            engine = new PainlessScriptEngine(Settings.EMPTY, contexts);
+            source = "params.sales / params.count * params.factor";
+        } else {
+            engine = new ExpressionScriptEngine(Settings.EMPTY);
+            source = "sales / count * factor";
+        }
+        executableFactory = engine.compile("bucket_script", source, ExecutableScript.AGGS_CONTEXT, Collections.emptyMap());
+        batchFactory = engine.compile("bucket_script", source, BucketAggregationScript.CONTEXT, Collections.emptyMap());
+        params = Collections.singletonMap("factor", 100);
+
+        Random random = new Random(42);
+        double[] sales = new double[numBuckets];
+        double[] count = new double[numBuckets];
+        for (int i = 0; i < numBuckets; i++) {
+            sales[i] = (double) random.nextInt(100000);
+            count[i] = (double) (1 + random.nextInt(1000));
+        }
+        variables = new HashMap<>();
+        variables.put("sales", sales);
+        variables.put("count", count);
+        results = new double[numBuckets];
+    }
+
+    @Benchmark
+    public double perBucket() {
+        double[] sales = variables.get("sales");
+        double[] count = variables.get("count");
+        double sum = 0;
+        for (int i = 0; i < numBuckets; i++) {
+            Map<String, Object> vars = new HashMap<>(params);
+            vars.put("sales", sales[i]);
+            vars.put("count", count[i]);
+            sum += ((Number) executableFactory.newInstance(vars).run()).doubleValue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double batch() {
+        batchFactory.newInstance(params).execute(numBuckets, variables, Collections.emptyMap(), new BucketAggregationScript.Results() {
+            @Override
+            public void setNumber(int bucket, double value) {
+                results[bucket] = value;
+            }
+
+            @Override
+            public void setBoolean(int bucket, boolean value) {
+                throw new IllegalStateException("the script returns numbers");
+            }
+
+            @Override
+            public void setNull(int bucket) {
+                throw new IllegalStateException("the script returns numbers");
+            }
+
+            @Override
+            public void setObject(int bucket, Object value) {
+                throw new IllegalStateException("the script returns numbers");
+            }
+        });
+        double sum = 0;
+        for (double result : results) {
+            sum += result;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.script;
+
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.elasticsearch.index.fielddata.AbstractSortedNumericDocValues;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a numeric field the way scripts do, through {@link ScriptDocValues.Longs} for the common
+ * <code>doc['field'].size() == 0 ? 0 : doc['field'].value</code> pattern, with reading the doc values directly, which is what
+ * the expressions engine does.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class ScriptDocValuesBenchmark {
+    // Do NOT make any field final (even if it is not annotated with @Param)! See also
+    // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/JMHSample_10_ConstantFold.java
+    @Param({"1", "4"})
+    public int valuesPerDoc = 1;
+
+    public int numDocs = 1_000_000;
+
+    private long[][] values;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        values = new long[numDocs][];
+        for (int doc = 0; doc < numDocs; doc++) {
+            values[doc] = new long[valuesPerDoc];
+            for (int i = 0; i < valuesPerDoc; i++) {
+                values[doc][i] = random.nextLong();
+            }
+        }
+    }
+
+    @Benchmark
+    public long scriptDocValues() throws IOException {
+        ScriptDocValues.Longs longs = new ScriptDocValues.Longs(docValues());
+        long sum = 0;
+        for (int doc = 0; doc < numDocs; doc++) {
+            // every doc['field'] access positions the script doc values on the current document
+            longs.setNextDocId(doc);
+            if (longs.size() != 0) {
+                longs.setNextDocId(doc);
+                sum += longs.getValue();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long docValues() throws IOException {
+        SortedNumericDocValues docValues = docValues();
+        long sum = 0;
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (docValues.advanceExact(doc)) {
+                sum += docValues.nextValue();
+            }
+        }
+        return sum;
+    }
+
+    private SortedNumericDocValues docValues() {
+        return new AbstractSortedNumericDocValues() {
+            long[] current;
+            int i;
+
+            @Override
+            public boolean advanceExact(int doc) {
+                current = values[doc];
+                i = 0;
+                return current.length > 0;
+            }
+
+            @Override
+            public int docValueCount() {
+                return current.length;
+            }
+
+            @Override
+            public long nextValue() {
+                return current[i++];
+            }
+        };
+    }
+}
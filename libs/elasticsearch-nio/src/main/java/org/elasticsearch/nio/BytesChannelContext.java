@@ -22,13 +22,20 @@ package org.elasticsearch.nio;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 public class BytesChannelContext extends SocketChannelContext {
 
+    static final long MAX_BYTES_PER_GATHERING_WRITE = 1 << 20;
+    // the limit for the number of buffers of a single gathering write on most operating systems (IOV_MAX)
+    static final int MAX_BUFFERS_PER_GATHERING_WRITE = 1024;
+
     private final ReadConsumer readConsumer;
     private final InboundChannelBuffer channelBuffer;
     private final LinkedList<BytesWriteOperation> queued = new LinkedList<>();
@@ -156,12 +163,51 @@ public class BytesChannelContext extends SocketChannelContext {
         }
     }
 
+    /**
+     * Gathers the buffers of the queued write operations, up to {@link #MAX_BYTES_PER_GATHERING_WRITE} bytes and
+     * {@link #MAX_BUFFERS_PER_GATHERING_WRITE} buffers, and writes them with a single call to the channel. This avoids one
+     * system call per message when many small messages are queued.
+     */
     private void multiFlush() throws IOException {
-        boolean lastOpCompleted = true;
-        while (lastOpCompleted && queued.isEmpty() == false) {
-            BytesWriteOperation op = queued.pop();
-            singleFlush(op);
-            lastOpCompleted = op.isFullyFlushed();
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        final List<BytesWriteOperation> ops = new ArrayList<>();
+        final List<Integer> opBytes = new ArrayList<>();
+        long gatheredBytes = 0;
+        for (BytesWriteOperation op : queued) {
+            final ByteBuffer[] opBuffers = op.getBuffersToWrite();
+            if (ops.isEmpty() == false && (gatheredBytes >= MAX_BYTES_PER_GATHERING_WRITE
+                || buffers.size() + opBuffers.length > MAX_BUFFERS_PER_GATHERING_WRITE)) {
+                break;
+            }
+            int bytes = 0;
+            for (ByteBuffer buffer : opBuffers) {
+                bytes += buffer.remaining();
+            }
+            Collections.addAll(buffers, opBuffers);
+            ops.add(op);
+            opBytes.add(bytes);
+            gatheredBytes += bytes;
+        }
+
+        int written;
+        try {
+            written = flushToChannel(buffers.toArray(new ByteBuffer[buffers.size()]));
+        } catch (IOException e) {
+            getSelector().executeFailedListener(queued.pop().getListener(), e);
+            throw e;
+        }
+
+        for (int i = 0; i < ops.size(); i++) {
+            final BytesWriteOperation op = ops.get(i);
+            final int consumed = Math.min(written, opBytes.get(i));
+            op.incrementIndex(consumed);
+            written -= consumed;
+            if (op.isFullyFlushed()) {
+                queued.pop();
+                getSelector().executeListener(op.getListener(), null);
+            } else {
+                break;
+            }
         }
     }
 }
@@ -311,6 +311,32 @@ public class BytesChannelContextTests extends ESTestCase {
         assertFalse(context.hasQueuedWriteOps());
     }
 
+    @SuppressWarnings("unchecked")
+    public void testMultipleWritesAreGatheredIntoSingleWrite() throws IOException {
+        BiConsumer<Void, Throwable> listener2 = mock(BiConsumer.class);
+        BytesWriteOperation writeOperation1 = new BytesWriteOperation(context, new ByteBuffer[] {ByteBuffer.allocate(10)}, listener);
+        BytesWriteOperation writeOperation2 = new BytesWriteOperation(context,
+            new ByteBuffer[] {ByteBuffer.allocate(5), ByteBuffer.allocate(5)}, listener2);
+        context.queueWriteOperation(writeOperation1);
+        context.queueWriteOperation(writeOperation2);
+
+        when(rawChannel.write(any(ByteBuffer[].class), anyInt(), anyInt())).thenReturn(15L);
+        context.flushChannel();
+
+        verify(rawChannel, times(1)).write(any(ByteBuffer[].class), anyInt(), anyInt());
+        verify(selector).executeListener(listener, null);
+        verify(selector, times(0)).executeListener(listener2, null);
+        assertTrue(writeOperation1.isFullyFlushed());
+        assertFalse(writeOperation2.isFullyFlushed());
+        assertTrue(context.hasQueuedWriteOps());
+
+        when(rawChannel.write(any(ByteBuffer[].class), anyInt(), anyInt())).thenReturn(5L);
+        context.flushChannel();
+
+        verify(selector).executeListener(listener2, null);
+        assertFalse(context.hasQueuedWriteOps());
+    }
+
     public void testWhenIOExceptionThrownListenerIsCalled() throws IOException {
         assertFalse(context.hasQueuedWriteOps());
 
@@ -76,6 +76,8 @@ public final class Grok {
     private final Map<String, String> patternBank;
     private final boolean namedCaptures;
     private final Regex compiledExpression;
+    private final GrokPrefilter prefilter;
+    private final List<GrokMatchGroup> matchGroups;
 
     public Grok(Map<String, String> patternBank, String grokPattern) {
         this(patternBank, grokPattern, true);
@@ -95,6 +97,15 @@ public final class Grok {
         String expression = toRegex(grokPattern);
         byte[] expressionBytes = expression.getBytes(StandardCharsets.UTF_8);
         this.compiledExpression = new Regex(expressionBytes, 0, expressionBytes.length, Option.DEFAULT, UTF8Encoding.INSTANCE);
+        this.prefilter = GrokPrefilter.build(expression);
+
+        List<GrokMatchGroup> matchGroups = new ArrayList<>(compiledExpression.numberOfNames());
+        for (Iterator<NameEntry> entry = compiledExpression.namedBackrefIterator(); entry.hasNext();) {
+            NameEntry e = entry.next();
+            String groupName = new String(e.name, e.nameP, e.nameEnd - e.nameP, StandardCharsets.UTF_8);
+            matchGroups.add(new GrokMatchGroup(groupName, e.getBackRefs()));
+        }
+        this.matchGroups = Collections.unmodifiableList(matchGroups);
     }
 
     /**
@@ -204,6 +215,9 @@ public final class Grok {
      * @return true if grok expression matches text, false otherwise.
      */
     public boolean match(String text) {
+        if (prefilter != null && prefilter.mightMatch(text) == false) {
+            return false;
+        }
         Matcher matcher = compiledExpression.matcher(text.getBytes(StandardCharsets.UTF_8));
         int result = matcher.search(0, text.length(), Option.DEFAULT);
         return (result != -1);
@@ -217,21 +231,21 @@ public final class Grok {
      * @return a map containing field names and their respective coerced values that matched.
      */
     public Map<String, Object> captures(String text) {
+        if (prefilter != null && prefilter.mightMatch(text) == false) {
+            return null;
+        }
         byte[] textAsBytes = text.getBytes(StandardCharsets.UTF_8);
         Map<String, Object> fields = new HashMap<>();
         Matcher matcher = compiledExpression.matcher(textAsBytes);
         int result = matcher.search(0, textAsBytes.length, Option.DEFAULT);
-        if (result != -1 && compiledExpression.numberOfNames() > 0) {
+        if (result != -1 && matchGroups.isEmpty() == false) {
             Region region = matcher.getEagerRegion();
-            for (Iterator<NameEntry> entry = compiledExpression.namedBackrefIterator(); entry.hasNext();) {
-                NameEntry e = entry.next();
-                String groupName = new String(e.name, e.nameP, e.nameEnd - e.nameP, StandardCharsets.UTF_8);
-                for (int number : e.getBackRefs()) {
+            for (GrokMatchGroup matchGroup : matchGroups) {
+                for (int number : matchGroup.getBackRefs()) {
                     if (region.beg[number] >= 0) {
                         String matchValue = new String(textAsBytes, region.beg[number], region.end[number] - region.beg[number],
                             StandardCharsets.UTF_8);
-                        GrokMatchGroup match = new GrokMatchGroup(groupName, matchValue);
-                        fields.put(match.getName(), match.getValue());
+                        fields.put(matchGroup.getName(), matchGroup.getValue(matchValue));
                         break;
                     }
                 }
@@ -0,0 +1,354 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.grok;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cheap check that rejects texts that can not possibly match a regex before it is handed to joni.
+ *
+ * The regex is split into its top level alternatives, descending into groups that span a whole alternative (which is what
+ * combining several grok patterns produces). For every alternative the literal runs it requires are collected in order, looking
+ * into nested groups as long as they are neither optional nor alternations; a text may only match if, for at least one
+ * alternative, all of these literals occur in it in that order.
+ * Anything that is not understood is skipped, which only makes the filter less selective and never rejects a matching text.
+ */
+final class GrokPrefilter {
+
+    private final List<List<String>> alternatives;
+
+    private GrokPrefilter(List<List<String>> alternatives) {
+        this.alternatives = alternatives;
+    }
+
+    /**
+     * @return a prefilter for the given regex or <code>null</code> if some alternative of the regex has no required literal,
+     * in which case no text could ever be rejected
+     */
+    static GrokPrefilter build(String regex) {
+        if (hasInlineOptions(regex)) {
+            // options like (?i) or (?x) change how literals match
+            return null;
+        }
+        List<List<String>> alternatives = new ArrayList<>();
+        collectAlternatives(regex, alternatives);
+        for (List<String> literals : alternatives) {
+            if (literals.isEmpty()) {
+                return null;
+            }
+        }
+        return new GrokPrefilter(Collections.unmodifiableList(alternatives));
+    }
+
+    /**
+     * @return <code>false</code> if the text can not match the regex this prefilter was built for
+     */
+    boolean mightMatch(String text) {
+        for (List<String> literals : alternatives) {
+            if (containsInOrder(text, literals)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<List<String>> getAlternatives() {
+        return alternatives;
+    }
+
+    private static boolean containsInOrder(String text, List<String> literals) {
+        int from = 0;
+        for (String literal : literals) {
+            int index = text.indexOf(literal, from);
+            if (index == -1) {
+                return false;
+            }
+            from = index + literal.length();
+        }
+        return true;
+    }
+
+    private static boolean hasInlineOptions(String regex) {
+        for (int i = regex.indexOf("(?"); i != -1; i = regex.indexOf("(?", i + 1)) {
+            if (i + 2 < regex.length() && "imx-".indexOf(regex.charAt(i + 2)) != -1 && isEscaped(regex, i) == false) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEscaped(String regex, int index) {
+        int backslashes = 0;
+        for (int i = index - 1; i >= 0 && regex.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    private static void collectAlternatives(String regex, List<List<String>> alternatives) {
+        for (String alternative : splitAlternatives(regex)) {
+            String groupContent = wholeGroupContent(alternative);
+            if (groupContent != null) {
+                collectAlternatives(groupContent, alternatives);
+            } else {
+                alternatives.add(requiredLiterals(alternative));
+            }
+        }
+    }
+
+    /**
+     * Splits the regex on the <code>|</code> characters that are not nested in a group or character class.
+     */
+    private static List<String> splitAlternatives(String regex) {
+        List<String> alternatives = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = endOfCharacterClass(regex, i);
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                alternatives.add(regex.substring(start, i));
+                start = i + 1;
+            }
+        }
+        alternatives.add(regex.substring(start));
+        return alternatives;
+    }
+
+    /**
+     * @return the content of the group if the given expression consists of a single group, <code>null</code> otherwise
+     */
+    private static String wholeGroupContent(String expression) {
+        if (expression.isEmpty() || expression.charAt(0) != '(' || endOfGroup(expression, 0) != expression.length() - 1) {
+            return null;
+        }
+        return groupContent(expression, 0, expression.length() - 1);
+    }
+
+    /**
+     * @return the content of the group between <code>start</code> and <code>end</code> if it is a capturing, non capturing,
+     * named or atomic group, <code>null</code> for look arounds, comments and the like
+     */
+    private static String groupContent(String regex, int start, int end) {
+        String group = regex.substring(start, end);
+        int contentStart;
+        if (group.startsWith("(?:") || group.startsWith("(?>")) {
+            contentStart = 3;
+        } else if (group.startsWith("(?<") && group.startsWith("(?<=") == false && group.startsWith("(?<!") == false) {
+            contentStart = group.indexOf('>') + 1;
+            if (contentStart == 0) {
+                return null;
+            }
+        } else if (group.startsWith("(?")) {
+            return null;
+        } else {
+            contentStart = 1;
+        }
+        return group.substring(contentStart);
+    }
+
+    /**
+     * Collects, in order, the runs of literal characters an expression requires. Groups that are not quantified and have a single
+     * alternative are required as well, so their literals are collected too.
+     */
+    private static List<String> requiredLiterals(String expression) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '(') {
+                flush(current, literals);
+                int end = endOfGroup(expression, i);
+                if (end == expression.length()) {
+                    break;
+                }
+                String content = groupContent(expression, i, end);
+                if (content != null && isQuantifier(expression, end + 1) == false) {
+                    List<String> alternatives = splitAlternatives(content);
+                    if (alternatives.size() == 1) {
+                        literals.addAll(requiredLiterals(content));
+                    }
+                }
+                i = end;
+            } else if (c == ')') {
+                flush(current, literals);
+            } else if (c == '[') {
+                i = endOfCharacterClass(expression, i);
+                flush(current, literals);
+            } else if (c == '\\') {
+                if (i + 1 >= expression.length()) {
+                    break;
+                }
+                char escaped = expression.charAt(++i);
+                if (Character.isLetterOrDigit(escaped)) {
+                    // character types, anchors, back references, code points...
+                    flush(current, literals);
+                    i = skipEscapeArguments(expression, i + 1) - 1;
+                } else {
+                    current.append(escaped);
+                }
+            } else if (c == '?' || c == '*' || c == '+') {
+                // the preceding character is optional or may repeat, it can't be part of a fixed literal
+                dropLast(current);
+                flush(current, literals);
+            } else if (c == '{') {
+                int end = endOfInterval(expression, i);
+                if (end != -1) {
+                    dropLast(current);
+                    i = end;
+                }
+                flush(current, literals);
+            } else if (c == '.' || c == '^' || c == '$' || c == '|' || c == '}') {
+                flush(current, literals);
+            } else {
+                current.append(c);
+            }
+        }
+        flush(current, literals);
+        return literals;
+    }
+
+    private static boolean isQuantifier(String regex, int index) {
+        if (index >= regex.length()) {
+            return false;
+        }
+        char c = regex.charAt(index);
+        return c == '?' || c == '*' || c == '+' || (c == '{' && endOfInterval(regex, index) != -1);
+    }
+
+    /**
+     * @return the index of the parenthesis closing the group opened at <code>start</code>, or the length of the regex if it is
+     * not closed
+     */
+    private static int endOfGroup(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = endOfCharacterClass(regex, i);
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return regex.length();
+    }
+
+    private static void flush(StringBuilder current, List<String> literals) {
+        if (current.length() > 0) {
+            literals.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    private static void dropLast(StringBuilder current) {
+        if (current.length() > 0) {
+            int last = current.length() - 1;
+            if (last > 0 && Character.isLowSurrogate(current.charAt(last)) && Character.isHighSurrogate(current.charAt(last - 1))) {
+                last--;
+            }
+            current.setLength(last);
+        }
+    }
+
+    /**
+     * @return the index of the closing bracket of the character class opened at <code>start</code>, taking nested classes into account
+     */
+    private static int endOfCharacterClass(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+                // a closing bracket right after the opening one (or its negation) is a literal
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return regex.length();
+    }
+
+    /**
+     * @return the index of the closing brace if an interval quantifier like <code>{2}</code> or <code>{1,3}</code> starts at
+     * <code>start</code>, <code>-1</code> if the brace is a literal
+     */
+    private static int endOfInterval(String regex, int start) {
+        boolean comma = false;
+        for (int i = start + 1; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '}') {
+                return i > start + 1 ? i : -1;
+            } else if (c == ',' && comma == false) {
+                comma = true;
+            } else if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips what may follow an alphanumeric escape, like the name of a back reference or the digits of a code point.
+     */
+    private static int skipEscapeArguments(String regex, int start) {
+        int i = start;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '{' || c == '<' || c == '\'') {
+                int end = regex.indexOf(c == '{' ? '}' : c == '<' ? '>' : '\'', i + 1);
+                if (end == -1) {
+                    return regex.length();
+                }
+                i = end + 1;
+            } else if (Character.isLetterOrDigit(c) || c == '-') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+}
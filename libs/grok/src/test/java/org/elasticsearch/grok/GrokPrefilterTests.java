@@ -0,0 +1,82 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.grok;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class GrokPrefilterTests extends ESTestCase {
+
+    public void testLiteralRuns() {
+        GrokPrefilter prefilter = GrokPrefilter.build("foo\\.bar?baz{2,3}qux\\d+x[ab|]y\\k<name>z");
+        assertThat(prefilter.getAlternatives(),
+            equalTo(Collections.singletonList(Arrays.asList("foo.ba", "ba", "qux", "x", "y"))));
+        assertTrue(prefilter.mightMatch("foo.babazzqux1xay"));
+        assertFalse(prefilter.mightMatch("qux foo.ba ba x y"));
+    }
+
+    public void testRequiredGroupsAreInlined() {
+        GrokPrefilter prefilter = GrokPrefilter.build("\\[(?<a>[0-9]+) (?:GET|POST) (?:HTTP/(?<b>1\\.[01]))\\]");
+        assertThat(prefilter.getAlternatives(), equalTo(Collections.singletonList(Arrays.asList("[", " ", " ", "HTTP/", "1.", "]"))));
+    }
+
+    public void testOptionalGroupsAreSkipped() {
+        GrokPrefilter prefilter = GrokPrefilter.build("a(?:bc)?d(?:ef)*g(?:hi){0,2}j(?=kl)m");
+        assertThat(prefilter.getAlternatives(), equalTo(Collections.singletonList(Arrays.asList("a", "d", "g", "j", "m"))));
+    }
+
+    public void testAlternatives() {
+        GrokPrefilter prefilter = GrokPrefilter.build("(?<_ingest._grok_match_index.0>foo [0-9]+)|(?:bar|baz\\|)");
+        assertThat(prefilter.getAlternatives(),
+            equalTo(Arrays.asList(Collections.singletonList("foo "), Collections.singletonList("bar"), Collections.singletonList("baz|"))));
+        assertTrue(prefilter.mightMatch("a baz| b"));
+        assertFalse(prefilter.mightMatch("ba foo"));
+    }
+
+    public void testNoPrefilter() {
+        assertThat(GrokPrefilter.build("[a-z]+"), nullValue());
+        assertThat(GrokPrefilter.build("foo|"), nullValue());
+        assertThat(GrokPrefilter.build("(?:foo)?"), nullValue());
+        assertThat(GrokPrefilter.build("(?i)foo"), nullValue());
+        assertThat(GrokPrefilter.build("foo(?x) bar"), nullValue());
+    }
+
+    public void testBuiltinPatterns() {
+        String syslogLine = "Mar 16 00:01:25 evita postfix/smtpd[1713]: connect from camomile.cloud9.net[168.100.1.3]";
+        String apacheLine = "83.149.9.216 - - [17/May/2015:10:05:03 +0000] \"GET /presentations/logstash-monitorama-2013/images/" +
+            "kibana-search.png HTTP/1.1\" 200 203023 \"http://semicomplete.com/presentations/logstash-monitorama-2013/\" \"Mozilla/5.0\"";
+        String pattern = "(?:%{SYSLOGLINE})|(?:%{COMBINEDAPACHELOG})";
+        Grok grok = new Grok(Grok.getBuiltinPatterns(), pattern);
+        GrokPrefilter prefilter = GrokPrefilter.build(grok.toRegex(pattern));
+        assertThat(prefilter.getAlternatives().size(), equalTo(2));
+        assertTrue(prefilter.mightMatch(syslogLine));
+        assertTrue(prefilter.mightMatch(apacheLine));
+        assertFalse(prefilter.mightMatch("garbage"));
+
+        assertThat(grok.captures(syslogLine).get("program"), equalTo("postfix/smtpd"));
+        assertThat(grok.captures(apacheLine).get("verb"), equalTo("GET"));
+        assertThat(grok.captures("55.3.244.1 GET /index.html 15824 0.043"), nullValue());
+    }
+}
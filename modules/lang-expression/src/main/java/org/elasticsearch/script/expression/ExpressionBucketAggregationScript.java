@@ -0,0 +1,87 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.script.expression;
+
+import org.apache.lucene.expressions.Expression;
+import org.elasticsearch.script.BucketAggregationScript;
+import org.elasticsearch.script.GeneralScriptException;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Evaluates an expression for all buckets of an aggregation, binding each variable either to the values of the buckets or to
+ * a numeric parameter.
+ */
+public class ExpressionBucketAggregationScript extends BucketAggregationScript {
+    private final Expression expression;
+
+    public ExpressionBucketAggregationScript(Expression expression, Map<String, Object> params) {
+        super(params);
+        this.expression = expression;
+    }
+
+    @Override
+    public void execute(int numBuckets, Map<String, double[]> variables, Map<String, BitSet> missing, Results results) {
+        ReplaceableConstDoubleValues[] functionValuesArray = new ReplaceableConstDoubleValues[expression.variables.length];
+        // the values of the variables bound to buckets, null for those bound to parameters
+        double[][] bucketValues = new double[functionValuesArray.length][];
+        BitSet[] missingValues = new BitSet[functionValuesArray.length];
+        for (int functionValuesIndex = 0; functionValuesIndex < functionValuesArray.length; ++functionValuesIndex) {
+            String variableName = expression.variables[functionValuesIndex];
+            functionValuesArray[functionValuesIndex] = new ReplaceableConstDoubleValues();
+            bucketValues[functionValuesIndex] = variables.get(variableName);
+            missingValues[functionValuesIndex] = missing.get(variableName);
+            if (bucketValues[functionValuesIndex] == null) {
+                Object value = getParams() == null ? null : getParams().get(variableName);
+                if (value == null) {
+                    throw new GeneralScriptException("Error using " + expression + ". " +
+                            "The variable [" + variableName + "] is neither a buckets path nor a parameter.");
+                } else if (value instanceof Number == false) {
+                    throw new GeneralScriptException("Error using " + expression + ". " +
+                            "Bucket aggregation expressions scripts can only process numbers." +
+                            "  The variable [" + variableName + "] is not a number.");
+                }
+                functionValuesArray[functionValuesIndex].setValue(((Number) value).doubleValue());
+            }
+        }
+
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            for (int functionValuesIndex = 0; functionValuesIndex < functionValuesArray.length; ++functionValuesIndex) {
+                if (bucketValues[functionValuesIndex] != null) {
+                    if (missingValues[functionValuesIndex] != null && missingValues[functionValuesIndex].get(bucket)) {
+                        // expressions cannot represent missing values
+                        throw new GeneralScriptException("Error using " + expression + ". " +
+                                "Bucket aggregation expressions scripts can only process numbers." +
+                                "  The variable [" + expression.variables[functionValuesIndex] + "] is not a number.");
+                    }
+                    functionValuesArray[functionValuesIndex].setValue(bucketValues[functionValuesIndex][bucket]);
+                }
+            }
+            final double result;
+            try {
+                result = expression.evaluate(functionValuesArray);
+            } catch (Exception exception) {
+                throw new GeneralScriptException("Error evaluating " + expression, exception);
+            }
+            results.setNumber(bucket, result);
+        }
+    }
+}
@@ -22,13 +22,18 @@ package org.elasticsearch.script.expression;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.script.BucketAggregationScript;
+import org.elasticsearch.script.GeneralScriptException;
 import org.elasticsearch.script.ScriptException;
 import org.elasticsearch.script.SearchScript;
 import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 
 import java.text.ParseException;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ExpressionTests extends ESSingleNodeTestCase {
     ExpressionScriptEngine service;
@@ -68,4 +73,48 @@ public class ExpressionTests extends ESSingleNodeTestCase {
         });
         assertTrue(e.getCause() instanceof ParseException);
     }
+
+    public void testBucketAggregationScript() {
+        BucketAggregationScript.Factory factory =
+            service.compile(null, "a * b + c", BucketAggregationScript.CONTEXT, Collections.emptyMap());
+        Map<String, double[]> variables = new HashMap<>();
+        variables.put("a", new double[] {1d, 2d, 3d, 4d});
+        variables.put("b", new double[] {2d, 2d, 2d, 2d});
+        Map<String, BitSet> missing = new HashMap<>();
+        double[] results = new double[3];
+        BucketAggregationScript.Results numbers = new BucketAggregationScript.Results() {
+            @Override
+            public void setNumber(int bucket, double value) {
+                results[bucket] = value;
+            }
+
+            @Override
+            public void setBoolean(int bucket, boolean value) {
+                fail("expressions only return numbers");
+            }
+
+            @Override
+            public void setNull(int bucket) {
+                fail("expressions only return numbers");
+            }
+
+            @Override
+            public void setObject(int bucket, Object value) {
+                fail("expressions only return numbers");
+            }
+        };
+        factory.newInstance(Collections.singletonMap("c", 1)).execute(3, variables, missing, numbers);
+        assertArrayEquals(new double[] {3d, 5d, 7d}, results, 0d);
+
+        GeneralScriptException e = expectThrows(GeneralScriptException.class,
+            () -> factory.newInstance(Collections.emptyMap()).execute(3, variables, missing, numbers));
+        assertTrue(e.getMessage().contains("The variable [c] is neither a buckets path nor a parameter."));
+
+        BitSet missingB = new BitSet();
+        missingB.set(1);
+        missing.put("b", missingB);
+        e = expectThrows(GeneralScriptException.class,
+            () -> factory.newInstance(Collections.singletonMap("c", 1)).execute(3, variables, missing, numbers));
+        assertTrue(e.getMessage().contains("The variable [b] is not a number."));
+    }
 }
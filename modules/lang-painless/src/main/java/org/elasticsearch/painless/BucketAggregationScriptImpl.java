@@ -0,0 +1,70 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.painless;
+
+import org.elasticsearch.script.BucketAggregationScript;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Runs a Painless script written for a single bucket on all buckets, reusing the same script instance for all of them.
+ */
+final class BucketAggregationScriptImpl extends BucketAggregationScript {
+
+    /**
+     * The script, with the variables of the bucket it runs on next.
+     */
+    private final ScriptImpl script;
+
+    /**
+     * Creates a BucketAggregationScriptImpl for a previously compiled Painless script.
+     * @param script The previously compiled Painless script.
+     * @param params The parameters to run the script with.
+     */
+    BucketAggregationScriptImpl(GenericElasticsearchScript script, Map<String, Object> params) {
+        super(params);
+        this.script = new ScriptImpl(script, params, null, null);
+    }
+
+    @Override
+    public void execute(int numBuckets, Map<String, double[]> variables, Map<String, BitSet> missing, Results results) {
+        String[] names = variables.keySet().toArray(new String[0]);
+        double[][] values = new double[names.length][];
+        BitSet[] missingValues = new BitSet[names.length];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = variables.get(names[i]);
+            missingValues[i] = missing.get(names[i]);
+        }
+        Map<String, Object> vars = script.getParams();
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            // reset the variables so that changes the script made to params on the previous bucket do not leak into this one
+            vars.clear();
+            if (getParams() != null) {
+                vars.putAll(getParams());
+            }
+            for (int i = 0; i < names.length; i++) {
+                boolean isMissing = missingValues[i] != null && missingValues[i].get(bucket);
+                vars.put(names[i], isMissing ? null : values[i][bucket]);
+            }
+            setResult(results, bucket, script.run());
+        }
+    }
+}
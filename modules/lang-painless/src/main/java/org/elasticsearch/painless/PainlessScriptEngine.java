@@ -25,6 +25,7 @@ import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.painless.Compiler.Loader;
 import org.elasticsearch.painless.spi.Whitelist;
+import org.elasticsearch.script.BucketAggregationScript;
 import org.elasticsearch.script.ExecutableScript;
 import org.elasticsearch.script.ScriptContext;
 import org.elasticsearch.script.ScriptEngine;
@@ -100,7 +101,8 @@ public final class PainlessScriptEngine extends AbstractComponent implements Scr
 
         for (Map.Entry<ScriptContext<?>, List<Whitelist>> entry : contexts.entrySet()) {
             ScriptContext<?> context = entry.getKey();
-            if (context.instanceClazz.equals(SearchScript.class) || context.instanceClazz.equals(ExecutableScript.class)) {
+            if (context.instanceClazz.equals(SearchScript.class) || context.instanceClazz.equals(ExecutableScript.class) ||
+                    context.instanceClazz.equals(BucketAggregationScript.class)) {
                 contextsToCompilers.put(context, new Compiler(GenericElasticsearchScript.class, new Definition(entry.getValue())));
             } else {
                 contextsToCompilers.put(context, new Compiler(context.instanceClazz, new Definition(entry.getValue())));
@@ -144,6 +146,12 @@ public final class PainlessScriptEngine extends AbstractComponent implements Scr
 
             ExecutableScript.Factory factory = (p) -> new ScriptImpl(painlessScript, p, null, null);
             return context.factoryClazz.cast(factory);
+        } else if (context.instanceClazz.equals(BucketAggregationScript.class)) {
+            GenericElasticsearchScript painlessScript =
+                (GenericElasticsearchScript)compile(compiler, scriptName, scriptSource, params);
+
+            BucketAggregationScript.Factory factory = (p) -> new BucketAggregationScriptImpl(painlessScript, p);
+            return context.factoryClazz.cast(factory);
         } else {
             // Check we ourselves are not being called by unprivileged code.
             SpecialPermission.check();
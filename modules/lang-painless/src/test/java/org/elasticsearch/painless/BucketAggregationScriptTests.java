@@ -0,0 +1,113 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.painless;
+
+import org.elasticsearch.painless.spi.Whitelist;
+import org.elasticsearch.script.BucketAggregationScript;
+import org.elasticsearch.script.ScriptContext;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BucketAggregationScriptTests extends ScriptTestCase {
+
+    @Override
+    protected Map<ScriptContext<?>, List<Whitelist>> scriptContexts() {
+        return Collections.singletonMap(BucketAggregationScript.CONTEXT, Whitelist.BASE_WHITELISTS);
+    }
+
+    private Object[] execute(String script, Map<String, Object> params, Map<String, double[]> variables, Map<String, BitSet> missing,
+                             int numBuckets) {
+        BucketAggregationScript.Factory factory =
+            scriptEngine.compile("bucket", script, BucketAggregationScript.CONTEXT, Collections.emptyMap());
+        Object[] results = new Object[numBuckets];
+        factory.newInstance(params).execute(numBuckets, variables, missing, new BucketAggregationScript.Results() {
+            @Override
+            public void setNumber(int bucket, double value) {
+                results[bucket] = value;
+            }
+
+            @Override
+            public void setBoolean(int bucket, boolean value) {
+                results[bucket] = value;
+            }
+
+            @Override
+            public void setNull(int bucket) {
+                results[bucket] = null;
+            }
+
+            @Override
+            public void setObject(int bucket, Object value) {
+                results[bucket] = value;
+            }
+        });
+        return results;
+    }
+
+    public void testNumbers() {
+        Map<String, double[]> variables = new HashMap<>();
+        variables.put("a", new double[] {1d, 2d, 3d, 4d});
+        variables.put("b", new double[] {2d, 2d, 2d, 2d});
+        Object[] results = execute("params.a * params.b + params.c", Collections.singletonMap("c", 1), variables,
+            Collections.emptyMap(), 3);
+        assertArrayEquals(new Object[] {3d, 5d, 7d}, results);
+    }
+
+    public void testBooleans() {
+        Map<String, double[]> variables = Collections.singletonMap("a", new double[] {1d, 200d});
+        assertArrayEquals(new Object[] {false, true},
+            execute("params.a > 100", Collections.emptyMap(), variables, Collections.emptyMap(), 2));
+    }
+
+    public void testOtherObjects() {
+        Map<String, double[]> variables = Collections.singletonMap("a", new double[] {1d});
+        assertArrayEquals(new Object[] {"a"}, execute("'a'", Collections.emptyMap(), variables, Collections.emptyMap(), 1));
+    }
+
+    public void testNullsAndNaNs() {
+        Map<String, double[]> variables = new HashMap<>();
+        variables.put("a", new double[] {1d, 0d, 0d});
+        variables.put("b", new double[] {2d, 2d, 0d});
+        BitSet missingA = new BitSet();
+        missingA.set(1);
+        // missing values are null, and a division by zero returns NaN rather than null
+        Object[] results = execute("params.a == null ? null : params.a / params.b", Collections.emptyMap(), variables,
+            Collections.singletonMap("a", missingA), 3);
+        assertEquals(0.5d, results[0]);
+        assertNull(results[1]);
+        assertTrue(Double.isNaN((Double) results[2]));
+    }
+
+    public void testParamsChangesDoNotLeakIntoNextBucket() {
+        Map<String, double[]> variables = Collections.singletonMap("a", new double[] {1d, 2d, 3d});
+        Map<String, Object> params = new HashMap<>();
+        params.put("c", 10);
+        // without a reset of params between buckets the second bucket would see b and the incremented c
+        Object[] results = execute("boolean leaked = params.containsKey('b'); def c = params.c; params.c = c + 1; params.b = 5; " +
+            "return leaked ? -1 : c + params.a", params, variables, Collections.emptyMap(), 3);
+        assertArrayEquals(new Object[] {11d, 12d, 13d}, results);
+        // the parameters passed to the factory are untouched
+        assertEquals(Collections.singletonMap("c", 10), params);
+    }
+}
@@ -60,7 +60,11 @@ final class Netty4MessageChannelHandler extends ChannelDuplexHandler {
             // buffer, or in the cumulative buffer, which is cleaned each time so it could be bigger than the actual size
             BytesReference reference = Netty4Utils.toBytesReference(buffer, remainingMessageSize);
             Attribute<NettyTcpChannel> channelAttribute = channel.attr(Netty4Transport.CHANNEL_KEY);
-            transport.messageReceived(reference, channelAttribute.get());
+            // retaining the buffer keeps the decoder from reusing it for later reads until the request has been read on its executor
+            transport.messageReceived(reference, channelAttribute.get(), () -> {
+                buffer.retain();
+                return buffer::release;
+            });
         } finally {
             // Set the expected position of the buffer, no matter what happened
             buffer.readerIndex(expectedReaderIndex);
@@ -0,0 +1,173 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http;
+
+import org.apache.http.message.BasicHeader;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.IndexScopedSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.settings.SettingsFilter;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.plugins.ActionPlugin;
+import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.RestController;
+import org.elasticsearch.rest.RestHandler;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.test.ESIntegTestCase.ClusterScope;
+import org.elasticsearch.test.ESIntegTestCase.Scope;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Tests that the header configured as the key of a fair thread pool queue is copied from REST requests, so that the queued
+ * requests of different tenants are interleaved.
+ */
+@ClusterScope(scope = Scope.SUITE, supportsDedicatedMasters = false, numDataNodes = 1, numClientNodes = 0)
+public class FairQueueKeyHeaderIT extends HttpSmokeTestCase {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private static final List<String> EXECUTED_TENANTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return Settings.builder()
+                .put(super.nodeSettings(nodeOrdinal))
+                .put("thread_pool.write.size", 1)
+                .put("thread_pool.write.fair_queue_key_header", TENANT_HEADER)
+                .build();
+    }
+
+    @Override
+    protected Collection<Class<? extends Plugin>> nodePlugins() {
+        ArrayList<Class<? extends Plugin>> plugins = new ArrayList<>(super.nodePlugins());
+        plugins.add(TenantTaskPlugin.class);
+        return plugins;
+    }
+
+    public void testTenantsAreInterleaved() throws Exception {
+        ensureGreen();
+        EXECUTED_TENANTS.clear();
+        ThreadPool threadPool = internalCluster().getInstance(ThreadPool.class);
+        ThreadPoolExecutor writeExecutor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.WRITE);
+
+        // occupy the only write thread so that the requests of both tenants are queued
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        CountDownLatch release = new CountDownLatch(1);
+        writeExecutor.execute(() -> {
+            try {
+                barrier.await();
+                release.await();
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        barrier.await(10, TimeUnit.SECONDS);
+
+        int requestsPerTenant = randomIntBetween(2, 5);
+        CountDownLatch responses = new CountDownLatch(2 * requestsPerTenant);
+        List<Exception> failures = new CopyOnWriteArrayList<>();
+        ResponseListener listener = new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+                responses.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                failures.add(exception);
+                responses.countDown();
+            }
+        };
+        // all requests of the first tenant are queued before any request of the second one
+        for (String tenant : Arrays.asList("a", "b")) {
+            for (int i = 0; i < requestsPerTenant; i++) {
+                getRestClient().performRequestAsync("POST", "/_tenant_task", listener, new BasicHeader(TENANT_HEADER, tenant));
+            }
+            int queued = "a".equals(tenant) ? requestsPerTenant : 2 * requestsPerTenant;
+            assertBusy(() -> assertThat(writeExecutor.getQueue().size(), equalTo(queued)));
+        }
+
+        release.countDown();
+        assertTrue(responses.await(30, TimeUnit.SECONDS));
+        assertThat(failures, empty());
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < requestsPerTenant; i++) {
+            expected.add("a");
+            expected.add("b");
+        }
+        assertThat(EXECUTED_TENANTS, equalTo(expected));
+    }
+
+    public static class TenantTaskPlugin extends Plugin implements ActionPlugin {
+        @Override
+        public List<RestHandler> getRestHandlers(Settings settings, RestController restController, ClusterSettings clusterSettings,
+                IndexScopedSettings indexScopedSettings, SettingsFilter settingsFilter,
+                IndexNameExpressionResolver indexNameExpressionResolver, Supplier<DiscoveryNodes> nodesInCluster) {
+            return singletonList(new TenantTaskRestAction(settings, restController));
+        }
+    }
+
+    /**
+     * Records the tenant of the thread context on the write thread pool, in the order in which the pool executes the requests.
+     */
+    public static class TenantTaskRestAction extends BaseRestHandler {
+        TenantTaskRestAction(Settings settings, RestController controller) {
+            super(settings);
+            controller.registerHandler(RestRequest.Method.POST, "/_tenant_task", this);
+        }
+
+        @Override
+        public String getName() {
+            return "tenant_task_action";
+        }
+
+        @Override
+        public RestChannelConsumer prepareRequest(RestRequest request, NodeClient client) {
+            ThreadContext threadContext = client.threadPool().getThreadContext();
+            return channel -> client.threadPool().executor(ThreadPool.Names.WRITE).execute(() -> {
+                EXECUTED_TENANTS.add(threadContext.getHeader(TENANT_HEADER));
+                channel.sendResponse(new BytesRestResponse(RestStatus.OK, "executed"));
+            });
+        }
+    }
+}
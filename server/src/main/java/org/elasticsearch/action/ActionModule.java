@@ -325,6 +325,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
@@ -367,10 +368,12 @@ public class ActionModule extends AbstractModule {
         actionFilters = setupActionFilters(actionPlugins);
         autoCreateIndex = transportClient ? null : new AutoCreateIndex(settings, clusterSettings, indexNameExpressionResolver);
         destructiveOperations = new DestructiveOperations(settings, clusterSettings);
-        Set<String> headers = Stream.concat(
+        Set<String> headers = Stream.of(
             actionPlugins.stream().flatMap(p -> p.getRestHeaders().stream()),
+            // headers that the thread pools read from the thread context, such as the key of a fair queue
+            threadPool.requestHeaders().stream(),
             Stream.of("X-Opaque-Id")
-        ).collect(Collectors.toSet());
+        ).flatMap(Function.identity()).collect(Collectors.toSet());
         UnaryOperator<RestHandler> restWrapper = null;
         for (ActionPlugin plugin : actionPlugins) {
             UnaryOperator<RestHandler> newRestWrapper = plugin.getRestHandlerWrapper(threadPool.getThreadContext());
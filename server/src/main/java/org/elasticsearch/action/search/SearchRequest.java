@@ -85,6 +85,8 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
 
     private int preFilterShardSize = DEFAULT_PRE_FILTER_SHARD_SIZE;
 
+    private boolean ccsMinimizeRoundtrips = false;
+
     private String[] types = Strings.EMPTY_ARRAY;
 
     public static final IndicesOptions DEFAULT_INDICES_OPTIONS = IndicesOptions.strictExpandOpenAndForbidClosed();
@@ -141,6 +143,9 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
         if (in.getVersion().onOrAfter(Version.V_6_3_0)) {
             allowPartialSearchResults = in.readOptionalBoolean();
         }           
+        if (in.getVersion().onOrAfter(Version.V_7_0_0_alpha1)) {
+            ccsMinimizeRoundtrips = in.readBoolean();
+        }
     }
 
     @Override
@@ -166,6 +171,9 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
         if (out.getVersion().onOrAfter(Version.V_6_3_0)) {
             out.writeOptionalBoolean(allowPartialSearchResults);
         }         
+        if (out.getVersion().onOrAfter(Version.V_7_0_0_alpha1)) {
+            out.writeBoolean(ccsMinimizeRoundtrips);
+        }
     }
 
     @Override
@@ -377,6 +385,44 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
     }    
     
 
+    /**
+     * Sets whether a search that only targets indices of a single remote cluster should be sent to that cluster as a whole, such that
+     * the remote cluster executes all search phases and reduces the shard results itself. This saves a round trip across the network
+     * per shard and search phase between the clusters. Defaults to <code>false</code>.
+     */
+    public void setCcsMinimizeRoundtrips(boolean ccsMinimizeRoundtrips) {
+        this.ccsMinimizeRoundtrips = ccsMinimizeRoundtrips;
+    }
+
+    /**
+     * Returns whether a search that only targets indices of a single remote cluster should be executed and reduced by that cluster.
+     */
+    public boolean isCcsMinimizeRoundtrips() {
+        return ccsMinimizeRoundtrips;
+    }
+
+    /**
+     * Returns a copy of this request that targets the given indices, which is sent to a remote cluster to execute the search there.
+     * The copy never tries to minimize roundtrips itself as the indices are local to the remote cluster.
+     */
+    SearchRequest copyForRemoteCluster(String[] remoteIndices) {
+        SearchRequest copy = new SearchRequest();
+        copy.indices(remoteIndices);
+        copy.searchType = searchType;
+        copy.routing = routing;
+        copy.preference = preference;
+        copy.source = source;
+        copy.requestCache = requestCache;
+        copy.allowPartialSearchResults = allowPartialSearchResults;
+        copy.scroll = scroll;
+        copy.batchedReduceSize = batchedReduceSize;
+        copy.maxConcurrentShardRequests = maxConcurrentShardRequests;
+        copy.preFilterShardSize = preFilterShardSize;
+        copy.types = types;
+        copy.indicesOptions = indicesOptions;
+        return copy;
+    }
+
     /**
      * Sets the number of shard results that should be reduced at once on the coordinating node. This value should be used as a protection
      * mechanism to reduce the memory overhead per search request if the potential number of shards in the request can be large.
@@ -504,14 +550,15 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
                 Objects.equals(maxConcurrentShardRequests, that.maxConcurrentShardRequests) &&
                 Objects.equals(preFilterShardSize, that.preFilterShardSize) &&
                 Objects.equals(indicesOptions, that.indicesOptions) &&
-                Objects.equals(allowPartialSearchResults, that.allowPartialSearchResults);
+                Objects.equals(allowPartialSearchResults, that.allowPartialSearchResults) &&
+                ccsMinimizeRoundtrips == that.ccsMinimizeRoundtrips;
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(searchType, Arrays.hashCode(indices), routing, preference, source, requestCache,
                 scroll, Arrays.hashCode(types), indicesOptions, batchedReduceSize, maxConcurrentShardRequests, preFilterShardSize, 
-                allowPartialSearchResults);
+                allowPartialSearchResults, ccsMinimizeRoundtrips);
     }
 
     @Override
@@ -529,6 +576,7 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
                 ", batchedReduceSize=" + batchedReduceSize +
                 ", preFilterShardSize=" + preFilterShardSize +
                 ", allowPartialSearchResults=" + allowPartialSearchResults +
+                ", ccsMinimizeRoundtrips=" + ccsMinimizeRoundtrips +
                 ", source=" + source + '}';
     }
 }
@@ -19,7 +19,9 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsGroup;
 import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsResponse;
@@ -39,16 +41,25 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.query.MatchNoneQueryBuilder;
 import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.profile.ProfileShardResult;
+import org.elasticsearch.search.profile.SearchProfileShardResults;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.ConnectTransportException;
 import org.elasticsearch.transport.RemoteClusterAware;
 import org.elasticsearch.transport.RemoteClusterService;
 import org.elasticsearch.transport.Transport;
+import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
@@ -60,6 +71,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.LongSupplier;
 
@@ -72,6 +84,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
             "action.search.shard_count.limit", Long.MAX_VALUE, 1L, Property.Dynamic, Property.NodeScope);
 
     private final ClusterService clusterService;
+    private final TransportService transportService;
     private final SearchTransportService searchTransportService;
     private final RemoteClusterService remoteClusterService;
     private final SearchPhaseController searchPhaseController;
@@ -84,6 +97,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                                  IndexNameExpressionResolver indexNameExpressionResolver) {
         super(settings, SearchAction.NAME, threadPool, transportService, actionFilters, SearchRequest::new, indexNameExpressionResolver);
         this.searchPhaseController = searchPhaseController;
+        this.transportService = transportService;
         this.searchTransportService = searchTransportService;
         this.remoteClusterService = searchTransportService.getRemoteClusterService();
         SearchTransportService.registerRequestHandler(transportService, searchService);
@@ -193,6 +207,9 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 executeSearch((SearchTask)task, timeProvider, searchRequest, localIndices, remoteClusterIndices, Collections.emptyList(),
                     (clusterName, nodeId) -> null, clusterState, Collections.emptyMap(), listener, clusterState.getNodes()
                         .getDataNodes().size(), SearchResponse.Clusters.EMPTY);
+            } else if (shouldMinimizeRoundtrips(searchRequest, localIndices, remoteClusterIndices)) {
+                final Map.Entry<String, OriginalIndices> entry = remoteClusterIndices.entrySet().iterator().next();
+                executeRemoteReducedSearch(task, searchRequest, entry.getKey(), entry.getValue(), timeProvider, listener);
             } else {
                 remoteClusterService.collectSearchShards(searchRequest.indicesOptions(), searchRequest.preference(),
                     searchRequest.routing(), remoteClusterIndices, ActionListener.wrap((searchShardsResponses) -> {
@@ -217,6 +234,78 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         }
     }
 
+    /**
+     * Returns whether the whole search can be sent to the single remote cluster it targets, which then executes all search phases and
+     * reduces the results itself. Scrolls are not supported as their ids would not reference the remote cluster.
+     */
+    static boolean shouldMinimizeRoundtrips(SearchRequest searchRequest, OriginalIndices localIndices,
+                                            Map<String, OriginalIndices> remoteClusterIndices) {
+        return searchRequest.isCcsMinimizeRoundtrips()
+            && searchRequest.scroll() == null
+            && localIndices.indices().length == 0
+            && remoteClusterIndices.size() == 1;
+    }
+
+    private void executeRemoteReducedSearch(Task task, SearchRequest searchRequest, String clusterAlias, OriginalIndices remoteIndices,
+                                            SearchTimeProvider timeProvider, ActionListener<SearchResponse> listener) {
+        final SearchRequest remoteRequest = searchRequest.copyForRemoteCluster(remoteIndices.indices());
+        final ActionListener<SearchResponse> remoteListener = ActionListener.wrap(
+            response -> listener.onResponse(buildRemoteReducedResponse(clusterAlias, response, buildTookInMillis(timeProvider))),
+            e -> onRemoteReducedSearchFailure(clusterAlias, e, isRemoteClusterUnavailable(e), timeProvider, listener));
+        remoteClusterService.ensureConnected(clusterAlias, ActionListener.wrap(v -> {
+            final Transport.Connection connection = remoteClusterService.getConnection(clusterAlias);
+            // sent as a child of the search task so that cancelling the search also cancels it on the remote cluster
+            transportService.sendChildRequest(connection, SearchAction.NAME, remoteRequest, task,
+                new ActionListenerResponseHandler<>(remoteListener, SearchResponse::new));
+        }, e -> onRemoteReducedSearchFailure(clusterAlias, e, true, timeProvider, listener)));
+    }
+
+    private void onRemoteReducedSearchFailure(String clusterAlias, Exception e, boolean unavailable, SearchTimeProvider timeProvider,
+                                              ActionListener<SearchResponse> listener) {
+        if (unavailable && remoteClusterService.isSkipUnavailable(clusterAlias)) {
+            listener.onResponse(new SearchResponse(InternalSearchResponse.empty(), null, 0, 0, 0, buildTookInMillis(timeProvider),
+                ShardSearchFailure.EMPTY_ARRAY, new SearchResponse.Clusters(1, 0, 1)));
+        } else if (unavailable) {
+            listener.onFailure(new TransportException("unable to communicate with remote cluster [" + clusterAlias + "]", e));
+        } else {
+            // the remote cluster executed the search and it failed, skip_unavailable does not apply
+            listener.onFailure(e);
+        }
+    }
+
+    /**
+     * Returns whether a remote search failed because the remote cluster could not be reached, as opposed to a failure of the search
+     * itself. Only the former is skipped for remote clusters that are configured with {@code skip_unavailable}.
+     */
+    static boolean isRemoteClusterUnavailable(Exception e) {
+        return ExceptionsHelper.unwrap(e, ConnectTransportException.class) != null;
+    }
+
+    private static long buildTookInMillis(SearchTimeProvider timeProvider) {
+        return TimeUnit.NANOSECONDS.toMillis(timeProvider.getRelativeCurrentNanos() - timeProvider.getRelativeStartNanos());
+    }
+
+    /**
+     * Converts the already reduced response of a remote cluster into the response of this search. The hits are attributed to the
+     * remote cluster so that their index names are prefixed with the cluster alias, like for shard level cross cluster searches.
+     */
+    static SearchResponse buildRemoteReducedResponse(String clusterAlias, SearchResponse remoteResponse, long tookInMillis) {
+        for (SearchHit hit : remoteResponse.getHits()) {
+            final SearchShardTarget shard = hit.getShard();
+            if (shard != null) {
+                final String nodeId = shard.getNodeIdText() == null ? null : shard.getNodeId();
+                hit.shard(new SearchShardTarget(nodeId, shard.getShardId(), clusterAlias, OriginalIndices.NONE));
+            }
+        }
+        final Map<String, ProfileShardResult> profileResults = remoteResponse.getProfileResults();
+        final InternalSearchResponse internalResponse = new InternalSearchResponse(remoteResponse.getHits(),
+            (InternalAggregations) remoteResponse.getAggregations(), remoteResponse.getSuggest(),
+            profileResults == null || profileResults.isEmpty() ? null : new SearchProfileShardResults(profileResults),
+            remoteResponse.isTimedOut(), remoteResponse.isTerminatedEarly(), remoteResponse.getNumReducePhases());
+        return new SearchResponse(internalResponse, null, remoteResponse.getTotalShards(), remoteResponse.getSuccessfulShards(),
+            remoteResponse.getSkippedShards(), tookInMillis, remoteResponse.getShardFailures(), new SearchResponse.Clusters(1, 1, 0));
+    }
+
     static SearchResponse.Clusters buildClusters(OriginalIndices localIndices, Map<String, OriginalIndices> remoteIndices,
                                                  Map<String, ClusterSearchShardsResponse> searchShardsResponses) {
         int localClusters = Math.min(localIndices.indices().length, 1);
@@ -350,6 +439,10 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 * IndexMetaData.INDEX_NUMBER_OF_SHARDS_SETTING.getDefault(Settings.EMPTY)));
         }
         boolean preFilterSearchShards = shouldPreFilterSearchShards(searchRequest, shardIterators);
+        if (preFilterSearchShards && skipShardsIfMatchNone(searchRequest.source(), shardIterators)) {
+            // the coordinating node already knows that no shard can match, there is no need for a can_match round trip
+            preFilterSearchShards = false;
+        }
         searchAsyncAction(task, searchRequest, shardIterators, timeProvider, connectionLookup, clusterState.version(),
             Collections.unmodifiableMap(aliasFilter), concreteIndexBoosts, routingMap, listener, preFilterSearchShards, clusters).start();
     }
@@ -361,6 +454,30 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 searchRequest.getPreFilterShardSize() < shardIterators.size();
     }
 
+    /**
+     * Skips all but the first shard if the query has been rewritten to a {@link MatchNoneQueryBuilder} on the coordinating node.
+     * The first shard is still searched since we need at least one shard response in order to build a valid search response
+     * including aggregations etc. This mirrors what the can_match phase would do without sending a request to every shard.
+     *
+     * @return <code>true</code> iff the shards have been skipped
+     */
+    static boolean skipShardsIfMatchNone(SearchSourceBuilder source, GroupShardsIterator<SearchShardIterator> shardIterators) {
+        if (source == null || source.query() instanceof MatchNoneQueryBuilder == false
+            || SearchService.canRewriteToMatchNone(source) == false) {
+            return false;
+        }
+        boolean first = true;
+        for (SearchShardIterator iter : shardIterators) {
+            if (first) {
+                iter.reset();
+                first = false;
+            } else {
+                iter.resetAndSkip();
+            }
+        }
+        return true;
+    }
+
     static GroupShardsIterator<SearchShardIterator> mergeShardsIterators(GroupShardsIterator<ShardIterator> localShardsIterator,
                                                              OriginalIndices localIndices,
                                                              List<SearchShardIterator> remoteShardIterators) {
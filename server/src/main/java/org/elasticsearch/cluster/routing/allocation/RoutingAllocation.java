@@ -28,9 +28,11 @@ import org.elasticsearch.cluster.routing.RoutingChangesObserver;
 import org.elasticsearch.cluster.routing.RoutingNodes;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDecider;
 import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.snapshots.RestoreService.RestoreInProgressUpdater;
 
@@ -38,6 +40,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static java.util.Collections.emptySet;
 import static java.util.Collections.unmodifiableSet;
@@ -65,6 +68,10 @@ public class RoutingAllocation {
 
     private Map<ShardId, Set<String>> ignoredShardToNodes = null;
 
+    private Map<String, Map<String, Decision>> nodeDecisions = null;
+
+    private Map<String, Map<Index, Map<String, Decision>>> indexNodeDecisions = null;
+
     private boolean ignoreDisable = false;
 
     private DebugMode debugDecision = DebugMode.OFF;
@@ -274,6 +281,57 @@ public class RoutingAllocation {
         }
     }
 
+    /**
+     * Returns the decision the given decider took earlier in this allocation run for placing shards of any index on the given node, or
+     * computes and remembers it if there is none yet. Cached decisions are never invalidated so this must only be used for decisions
+     * that depend on nothing but the node itself, not on the index or on the shards that are allocated to the node. Decisions are not
+     * cached while debugging since they then carry an explanation.
+     *
+     * @param deciderLabel the label of the {@link AllocationDecider} that takes the decision
+     * @param nodeId the id of the node the decision is for
+     * @param decisionSupplier computes the decision if it was not taken yet
+     */
+    public Decision getOrComputeNodeDecision(String deciderLabel, String nodeId, Supplier<Decision> decisionSupplier) {
+        if (debugDecision()) {
+            return decisionSupplier.get();
+        }
+        if (nodeDecisions == null) {
+            nodeDecisions = new HashMap<>();
+        }
+        return getOrCompute(nodeDecisions.computeIfAbsent(deciderLabel, k -> new HashMap<>()), nodeId, decisionSupplier);
+    }
+
+    /**
+     * Returns the decision the given decider took earlier in this allocation run for placing shards of the given index on the given
+     * node, or computes and remembers it if there is none yet. Cached decisions are never invalidated so this must only be used for
+     * decisions that depend on nothing but the index metadata and the node itself, not on the shards that are allocated to the node.
+     * Decisions are not cached while debugging since they then carry an explanation.
+     *
+     * @param deciderLabel the label of the {@link AllocationDecider} that takes the decision
+     * @param index the index the decision is for
+     * @param nodeId the id of the node the decision is for
+     * @param decisionSupplier computes the decision if it was not taken yet
+     */
+    public Decision getOrComputeIndexNodeDecision(String deciderLabel, Index index, String nodeId, Supplier<Decision> decisionSupplier) {
+        if (debugDecision()) {
+            return decisionSupplier.get();
+        }
+        if (indexNodeDecisions == null) {
+            indexNodeDecisions = new HashMap<>();
+        }
+        return getOrCompute(indexNodeDecisions.computeIfAbsent(deciderLabel, k -> new HashMap<>()).computeIfAbsent(index,
+            k -> new HashMap<>()), nodeId, decisionSupplier);
+    }
+
+    private static Decision getOrCompute(Map<String, Decision> decisions, String nodeId, Supplier<Decision> decisionSupplier) {
+        Decision decision = decisions.get(nodeId);
+        if (decision == null) {
+            decision = decisionSupplier.get();
+            decisions.put(nodeId, decision);
+        }
+        return decision;
+    }
+
     /**
      * Returns <code>true</code> iff the current allocation run has not processed all of the in-flight or available
      * shard or store fetches. Otherwise <code>true</code>
@@ -544,13 +544,12 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
                          * a relocation must bring us closer to the balance if we only achieve the same delta the relocation is useless */
                         if (tryRelocateShard(minNode, maxNode, index, delta)) {
                             /*
-                             * TODO we could be a bit smarter here, we don't need to fully sort necessarily
-                             * we could just find the place to insert linearly but the win might be minor
-                             * compared to the added complexity
+                             * only the weights of the two nodes involved in the relocation changed, the
+                             * remaining nodes are still in order so we can move them to their place linearly
                              */
                             weights[lowIdx] = sorter.weight(modelNodes[lowIdx]);
                             weights[highIdx] = sorter.weight(modelNodes[highIdx]);
-                            sorter.sort(0, relevantNodes);
+                            sorter.resort(0, relevantNodes);
                             lowIdx = 0;
                             highIdx = relevantNodes - 1;
                             continue;
@@ -593,8 +592,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
             final float[] deltas = new float[indices.length];
             for (int i = 0; i < deltas.length; i++) {
-                sorter.reset(indices[i]);
-                deltas[i] = sorter.delta();
+                deltas[i] = sorter.delta(indices[i]);
             }
             new IntroSorter() {
 
@@ -1239,8 +1237,33 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             return Float.compare(pivotWeight, weights[j]);
         }
 
-        public float delta() {
-            return weights[weights.length - 1] - weights[0];
+        /**
+         * Restores the order of the nodes in the given range after the weights of a few of them changed. The nodes
+         * are moved to their place by insertion which takes linear time when only a handful of weights changed,
+         * as opposed to a full sort.
+         */
+        public void resort(int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                for (int j = i; j > from && compare(j - 1, j) > 0; j--) {
+                    swap(j - 1, j);
+                }
+            }
+        }
+
+        /**
+         * Returns the difference between the highest and the lowest node weight with respect to the given index.
+         * Unlike {@link #reset(String)} this neither sorts the nodes nor updates {@link #weights}.
+         */
+        public float delta(String index) {
+            this.index = index;
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (ModelNode node : modelNodes) {
+                final float weight = weight(node);
+                min = Math.min(min, weight);
+                max = Math.max(max, weight);
+            }
+            return modelNodes.length == 0 ? 0 : max - min;
         }
     }
 }
@@ -137,16 +137,26 @@ public class FilterAllocationDecider extends AllocationDecider {
     }
 
     private Decision shouldFilter(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
-        Decision decision = shouldClusterFilter(node, allocation);
-        if (decision != null) return decision;
-
-        decision = shouldIndexFilter(allocation.metaData().getIndexSafe(shardRouting.index()), node, allocation);
-        if (decision != null) return decision;
-
-        return allocation.decision(Decision.YES, NAME, "node passes include/exclude/require filters");
+        return shouldFilter(allocation.metaData().getIndexSafe(shardRouting.index()), node, allocation);
     }
 
     private Decision shouldFilter(IndexMetaData indexMd, RoutingNode node, RoutingAllocation allocation) {
+        final boolean hasIndexFilters = indexMd.requireFilters() != null || indexMd.includeFilters() != null
+            || indexMd.excludeFilters() != null;
+        if (hasIndexFilters == false) {
+            if (clusterRequireFilters == null && clusterIncludeFilters == null && clusterExcludeFilters == null) {
+                // nothing to filter on, which is the common case, so don't bother caching
+                return allocation.decision(Decision.YES, NAME, "node passes include/exclude/require filters");
+            }
+            // the cluster filters only depend on the node attributes, so the decision holds for every index
+            return allocation.getOrComputeNodeDecision(NAME, node.nodeId(), () -> computeShouldFilter(indexMd, node, allocation));
+        }
+        // the filters only depend on the index settings and the node attributes, so the decision holds for the whole allocation run
+        return allocation.getOrComputeIndexNodeDecision(NAME, indexMd.getIndex(), node.nodeId(),
+            () -> computeShouldFilter(indexMd, node, allocation));
+    }
+
+    private Decision computeShouldFilter(IndexMetaData indexMd, RoutingNode node, RoutingAllocation allocation) {
         Decision decision = shouldClusterFilter(node, allocation);
         if (decision != null) return decision;
 
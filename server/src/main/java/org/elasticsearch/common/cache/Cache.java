@@ -27,8 +27,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -52,15 +55,21 @@ import java.util.function.ToLongBiFunction;
  * if they are reading a segment that a writer is writing to).
  * <p>
  * The LRU functionality is backed by a single doubly-linked list chaining the entries in order of insertion. This
- * LRU list is protected by a lock that serializes all writes to it. There are opportunities for improvements
+ * LRU list is protected by a lock that serializes all writes to it. Reads never wait for this lock: if it is held by
+ * another thread, the promotion of the entry that was read is added to a bounded buffer that is drained by the next
+ * thread acquiring the lock, and dropped if the buffer is full. There are opportunities for improvements
  * here if write throughput is a concern.
  * <ol>
  * <li>LRU list mutations could be inserted into a blocking queue that a single thread is reading from
  * and applying to the LRU list.</li>
- * <li>Promotions could be deferred for entries that were "recently" promoted.</li>
  * <li>Locks on the list could be taken per node being modified instead of globally.</li>
  * </ol>
  * <p>
+ * Optionally, the cache keeps a sketch of how often keys were accessed recently and only admits a new entry that
+ * requires an eviction if it was accessed more often than the least recently used entry (TinyLFU admission). Ties are
+ * resolved in favor of the entry that is already cached. This protects the cache from being flushed by scans of entries
+ * that are accessed only once.
+ * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
  *
@@ -96,6 +105,9 @@ public class Cache<K, V> {
     private RemovalListener<K, V> removalListener = notification -> {
     };
 
+    // the recent access frequencies of keys, non-null if new entries are admitted based on their frequency
+    private FrequencySketch frequencySketch;
+
     // use CacheBuilder to construct
     Cache() {
     }
@@ -143,6 +155,10 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    void setFrequencyBasedAdmission(boolean frequencyBasedAdmission) {
+        this.frequencySketch = frequencyBasedAdmission ? new FrequencySketch() : null;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -295,6 +311,28 @@ public class Cache<K, V> {
             return entry;
         }
 
+        /**
+         * remove an entry from the segment if the key is still mapped to it, and not to an entry that replaced it
+         *
+         * @param key   the key of the entry to remove from the cache
+         * @param entry the entry to remove from the cache
+         * @return true if the entry was removed
+         */
+        boolean remove(K key, Entry<K, V> entry) {
+            boolean removed = false;
+            try (ReleasableLock ignored = writeLock.acquire()) {
+                CompletableFuture<Entry<K, V>> future = map.get(key);
+                if (future != null && future.isDone() && future.isCompletedExceptionally() == false && future.getNow(null) == entry) {
+                    map.remove(key);
+                    removed = true;
+                }
+            }
+            if (removed) {
+                segmentStats.eviction();
+            }
+            return removed;
+        }
+
         private static class SegmentStats {
             private final LongAdder hits = new LongAdder();
             private final LongAdder misses = new LongAdder();
@@ -329,6 +367,13 @@ public class Cache<K, V> {
     // lock protecting mutations to the LRU list
     private ReleasableLock lruLock = new ReleasableLock(new ReentrantLock());
 
+    // the maximum number of reads whose promotion can be deferred while the LRU list is locked
+    static final int READ_BUFFER_SIZE = 128;
+
+    // entries that were read while the LRU list was locked, to be promoted by the next thread holding the lock
+    private final Queue<Entry<K, V>> readBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger readBufferSize = new AtomicInteger();
+
     /**
      * Returns the value to which the specified key is mapped, or null if this map contains no mapping for the key.
      *
@@ -345,11 +390,46 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            onRead(entry, now);
             return entry.value;
         }
     }
 
+    private void onRead(Entry<K, V> entry, long now) {
+        if (lruLock.tryAcquire()) {
+            try {
+                promote(entry, now);
+            } finally {
+                lruLock.close();
+            }
+        } else if (readBufferSize.incrementAndGet() <= READ_BUFFER_SIZE) {
+            readBuffer.offer(entry);
+        } else {
+            // the buffer is full, the entry will just not be promoted
+            readBufferSize.decrementAndGet();
+        }
+    }
+
+    private void drainReadBuffer() {
+        assert lruLock.isHeldByCurrentThread();
+
+        Entry<K, V> entry;
+        while ((entry = readBuffer.poll()) != null) {
+            readBufferSize.decrementAndGet();
+            // entries that are not linked yet will be by the thread that inserted them, deleted entries stay deleted
+            if (entry.state == State.EXISTING) {
+                recordAccess(entry);
+                relinkAtHead(entry);
+            }
+        }
+    }
+
+    private void recordAccess(Entry<K, V> entry) {
+        if (frequencySketch != null) {
+            frequencySketch.increment(entry.key);
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -528,6 +608,7 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
             evict(now);
         }
     }
@@ -632,7 +713,7 @@ public class Cache<K, V> {
             Entry<K, V> entry = current;
             if (entry != null) {
                 CacheSegment<K, V> segment = getCacheSegment(entry.key);
-                segment.remove(entry.key);
+                segment.remove(entry.key, entry);
                 try (ReleasableLock ignored = lruLock.acquire()) {
                     current = null;
                     delete(entry, RemovalNotification.RemovalReason.INVALIDATED);
@@ -686,15 +767,25 @@ public class Cache<K, V> {
     private boolean promote(Entry<K, V> entry, long now) {
         boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
             switch (entry.state) {
                 case DELETED:
                     promoted = false;
                     break;
                 case EXISTING:
+                    recordAccess(entry);
                     relinkAtHead(entry);
                     break;
                 case NEW:
+                    recordAccess(entry);
                     linkAtHead(entry);
+                    if (frequencySketch != null) {
+                        frequencySketch.ensureCapacity(count);
+                        if (admit(entry, now) == false) {
+                            evictEntry(entry);
+                            promoted = false;
+                        }
+                    }
                     break;
             }
             if (promoted) {
@@ -704,6 +795,19 @@ public class Cache<K, V> {
         return promoted;
     }
 
+    /**
+     * Whether a new entry should stay in the cache. It should not if it makes the cache exceed its maximum weight and was
+     * not accessed more often recently than the least recently used entry, which would be evicted in its favor.
+     */
+    private boolean admit(Entry<K, V> candidate, long now) {
+        assert lruLock.isHeldByCurrentThread();
+
+        if (exceedsWeight() == false || tail == candidate || isExpired(tail, now)) {
+            return true;
+        }
+        return frequencySketch.frequency(candidate.key) > frequencySketch.frequency(tail.key);
+    }
+
     private void evict(long now) {
         assert lruLock.isHeldByCurrentThread();
 
@@ -717,7 +821,8 @@ public class Cache<K, V> {
 
         CacheSegment<K, V> segment = getCacheSegment(entry.key);
         if (segment != null) {
-            segment.remove(entry.key);
+            // the key may already be mapped to a new entry that replaced this one, which must stay in the cache
+            segment.remove(entry.key, entry);
         }
         delete(entry, RemovalNotification.RemovalReason.EVICTED);
     }
@@ -30,6 +30,7 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private boolean frequencyBasedAdmission = false;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -90,6 +91,16 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Sets whether an entry that does not fit in the cache without evicting another one is only admitted if it was accessed
+     * more often recently than the entry that would be evicted. This keeps frequently used entries in the cache when many
+     * entries are used only once, at the cost of rejecting new entries until they have been requested a few times.
+     */
+    public CacheBuilder<K, V> setFrequencyBasedAdmission(boolean frequencyBasedAdmission) {
+        this.frequencyBasedAdmission = frequencyBasedAdmission;
+        return this;
+    }
+
     public Cache<K, V> build() {
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
@@ -107,6 +118,9 @@ public class CacheBuilder<K, V> {
         if (removalListener != null) {
             cache.setRemovalListener(removalListener);
         }
+        if (frequencyBasedAdmission) {
+            cache.setFrequencyBasedAdmission(true);
+        }
         return cache;
     }
 }
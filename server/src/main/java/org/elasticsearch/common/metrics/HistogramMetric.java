@@ -0,0 +1,50 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records latencies into a fixed number of log-linear buckets without locking. Use {@link #snapshot()} to get a
+ * {@link LatencyHistogram} that can be serialized, merged and queried for percentiles.
+ */
+public class HistogramMetric implements Metric {
+
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.NUM_BUCKETS);
+
+    public void inc(long tookInNanos) {
+        counts.incrementAndGet(LatencyHistogram.bucketIndex(TimeUnit.NANOSECONDS.toMicros(tookInNanos)));
+    }
+
+    public LatencyHistogram snapshot() {
+        final long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return new LatencyHistogram(snapshot);
+    }
+
+    public void clear() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+}
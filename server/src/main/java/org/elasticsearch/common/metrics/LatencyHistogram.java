@@ -0,0 +1,166 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A point-in-time copy of the latencies recorded by a {@link HistogramMetric}. Latencies are kept in microseconds in log-linear
+ * buckets: every power of two is split into {@link #SUB_BUCKETS} equally sized buckets, which bounds the relative error of a
+ * reported percentile to 25%. Histograms can be serialized and merged, which allows to compute percentiles across shards and nodes.
+ */
+public final class LatencyHistogram implements Writeable, ToXContentFragment {
+
+    static final int SUB_BUCKET_BITS = 2;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** enough buckets to cover latencies of about three weeks, larger latencies are counted in the last bucket */
+    static final int NUM_BUCKETS = 40 * SUB_BUCKETS;
+
+    private static final double[] PERCENTILES = new double[] { 50d, 90d, 99d, 99.9d };
+    private static final String[] PERCENTILE_FIELDS = new String[] { "p50", "p90", "p99", "p999" };
+
+    private final long[] counts;
+
+    public LatencyHistogram() {
+        this(new long[NUM_BUCKETS]);
+    }
+
+    LatencyHistogram(long[] counts) {
+        assert counts.length == NUM_BUCKETS : "expected " + NUM_BUCKETS + " buckets but got " + counts.length;
+        this.counts = counts;
+    }
+
+    public LatencyHistogram(StreamInput in) throws IOException {
+        counts = new long[NUM_BUCKETS];
+        final int numBuckets = in.readVInt();
+        if (numBuckets < 0) {
+            throw new IllegalStateException("invalid number of latency buckets [" + numBuckets + "]");
+        }
+        for (int i = 0; i < numBuckets; i++) {
+            // a node with more buckets covers larger latencies, which are counted in the last bucket like when recording them
+            counts[Math.min(i, NUM_BUCKETS - 1)] += in.readVLong();
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        // trailing empty buckets are not written, most histograms only use the first few dozen buckets
+        int numBuckets = counts.length;
+        while (numBuckets > 0 && counts[numBuckets - 1] == 0) {
+            numBuckets--;
+        }
+        out.writeVInt(numBuckets);
+        for (int i = 0; i < numBuckets; i++) {
+            out.writeVLong(counts[i]);
+        }
+    }
+
+    /**
+     * Merges the given histogram into this histogram.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * The total number of recorded latencies.
+     */
+    public long getCount() {
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the highest latency in microseconds that is equivalent to the given percentile, or <code>0</code> if no
+     * latencies have been recorded.
+     */
+    public long getPercentileInMicros(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in [0, 100] but was [" + percentile + "]");
+        }
+        final long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        throw new AssertionError("rank [" + rank + "] is greater than the number of recorded latencies [" + count + "]");
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            builder.field(PERCENTILE_FIELDS[i], getPercentileInMicros(PERCENTILES[i]));
+        }
+        return builder;
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        final int highestBit = 63 - Long.numberOfLeadingZeros(micros);
+        final int subBucket = (int) (micros >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(NUM_BUCKETS - 1, (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket);
+    }
+
+    static long highestEquivalentValue(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKETS) {
+            return bucketIndex;
+        }
+        final int shift = bucketIndex / SUB_BUCKETS - 1;
+        final long subBucket = bucketIndex & (SUB_BUCKETS - 1);
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(counts, ((LatencyHistogram) o).counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+}
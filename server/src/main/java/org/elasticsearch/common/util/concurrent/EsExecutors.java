@@ -19,6 +19,7 @@
 
 package org.elasticsearch.common.util.concurrent;
 
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
@@ -71,11 +72,23 @@ public class EsExecutors {
     }
 
     public static EsThreadPoolExecutor newFixed(String name, int size, int queueCapacity, ThreadFactory threadFactory, ThreadContext contextHolder) {
+        return newFixed(name, size, queueCapacity, null, threadFactory, contextHolder);
+    }
+
+    /**
+     * Return a new fixed executor.
+     *
+     * @param queueCapacity the capacity of the executor queue, negative for unbounded
+     * @param fairQueueKeyHeader if set, the queued tasks are handed out round-robin across the values of this
+     *                           {@link ThreadContext} header of the submitting threads instead of in FIFO order
+     */
+    public static EsThreadPoolExecutor newFixed(String name, int size, int queueCapacity, @Nullable String fairQueueKeyHeader,
+                                                ThreadFactory threadFactory, ThreadContext contextHolder) {
         BlockingQueue<Runnable> queue;
         if (queueCapacity < 0) {
-            queue = ConcurrentCollections.newBlockingQueue();
+            queue = newWorkQueue(fairQueueKeyHeader, contextHolder);
         } else {
-            queue = new SizeBlockingQueue<>(ConcurrentCollections.<Runnable>newBlockingQueue(), queueCapacity);
+            queue = new SizeBlockingQueue<>(newWorkQueue(fairQueueKeyHeader, contextHolder), queueCapacity);
         }
         return new EsThreadPoolExecutor(name, size, size, 0, TimeUnit.MILLISECONDS, queue, threadFactory, new EsAbortPolicy(), contextHolder);
     }
@@ -92,17 +105,40 @@ public class EsExecutors {
     public static EsThreadPoolExecutor newAutoQueueFixed(String name, int size, int initialQueueCapacity, int minQueueSize,
                                                          int maxQueueSize, int frameSize, TimeValue targetedResponseTime,
                                                          ThreadFactory threadFactory, ThreadContext contextHolder) {
+        return newAutoQueueFixed(name, size, initialQueueCapacity, minQueueSize, maxQueueSize, frameSize, targetedResponseTime, null,
+            threadFactory, contextHolder);
+    }
+
+    /**
+     * Return a new executor that will automatically adjust the queue size based on queue throughput.
+     *
+     * @param fairQueueKeyHeader if set, the queued tasks are handed out round-robin across the values of this
+     *                           {@link ThreadContext} header of the submitting threads instead of in FIFO order
+     * @see #newAutoQueueFixed(String, int, int, int, int, int, TimeValue, ThreadFactory, ThreadContext)
+     */
+    public static EsThreadPoolExecutor newAutoQueueFixed(String name, int size, int initialQueueCapacity, int minQueueSize,
+                                                         int maxQueueSize, int frameSize, TimeValue targetedResponseTime,
+                                                         @Nullable String fairQueueKeyHeader, ThreadFactory threadFactory,
+                                                         ThreadContext contextHolder) {
         if (initialQueueCapacity <= 0) {
             throw new IllegalArgumentException("initial queue capacity for [" + name + "] executor must be positive, got: " +
                             initialQueueCapacity);
         }
         ResizableBlockingQueue<Runnable> queue =
-                new ResizableBlockingQueue<>(ConcurrentCollections.<Runnable>newBlockingQueue(), initialQueueCapacity);
+                new ResizableBlockingQueue<>(newWorkQueue(fairQueueKeyHeader, contextHolder), initialQueueCapacity);
         return new QueueResizingEsThreadPoolExecutor(name, size, size, 0, TimeUnit.MILLISECONDS,
                 queue, minQueueSize, maxQueueSize, TimedRunnable::new, frameSize, targetedResponseTime, threadFactory,
                 new EsAbortPolicy(), contextHolder);
     }
 
+    private static BlockingQueue<Runnable> newWorkQueue(@Nullable String fairQueueKeyHeader, ThreadContext contextHolder) {
+        if (fairQueueKeyHeader == null || fairQueueKeyHeader.isEmpty()) {
+            return ConcurrentCollections.newBlockingQueue();
+        }
+        // tasks are offered on the submitting thread, so the header is read from the context of the submitter
+        return new FairBlockingQueue<>(() -> contextHolder.getHeader(fairQueueKeyHeader));
+    }
+
     private static final ExecutorService DIRECT_EXECUTOR_SERVICE = new AbstractExecutorService() {
 
         @Override
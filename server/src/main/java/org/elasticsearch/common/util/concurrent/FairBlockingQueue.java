@@ -0,0 +1,284 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * An unbounded blocking queue that hands out its elements round-robin across keys, such that a burst of elements offered under
+ * one key cannot starve the elements offered under other keys. Elements that share a key are handed out in FIFO order. The key of
+ * an element is taken from the given supplier when the element is offered, which allows to key the tasks of an executor by a header
+ * of the {@link ThreadContext} of the submitting thread. Elements without a key share a single default key.
+ *
+ * Capacity checks are left to a wrapping {@link SizeBlockingQueue}.
+ */
+public final class FairBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private static final String DEFAULT_KEY = "";
+
+    private final Supplier<String> keySupplier;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    // only keys with queued elements are tracked, so the number of keys is bounded by the number of queued elements
+    private final Map<String, KeyQueue<E>> queues = new HashMap<>();
+    // the keys with queued elements in the order they are served
+    private final ArrayDeque<KeyQueue<E>> serviceOrder = new ArrayDeque<>();
+    private int size;
+
+    public FairBlockingQueue(Supplier<String> keySupplier) {
+        this.keySupplier = Objects.requireNonNull(keySupplier);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        final String suppliedKey = keySupplier.get();
+        final String key = suppliedKey == null ? DEFAULT_KEY : suppliedKey;
+        lock.lock();
+        try {
+            KeyQueue<E> keyQueue = queues.get(key);
+            if (keyQueue == null) {
+                keyQueue = new KeyQueue<>(key);
+                queues.put(key, keyQueue);
+                serviceOrder.addLast(keyQueue);
+            }
+            keyQueue.elements.addLast(e);
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) {
+        return offer(e);
+    }
+
+    @Override
+    public void put(E e) {
+        offer(e);
+    }
+
+    @Override
+    public E poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E peek() {
+        lock.lock();
+        try {
+            final KeyQueue<E> keyQueue = serviceOrder.peekFirst();
+            return keyQueue == null ? null : keyQueue.elements.peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next element of the key that is up next and moves that key to the back of the line. Must be called under the lock.
+     */
+    private E dequeue() {
+        assert lock.isHeldByCurrentThread();
+        final KeyQueue<E> keyQueue = serviceOrder.pollFirst();
+        if (keyQueue == null) {
+            return null;
+        }
+        final E e = keyQueue.elements.pollFirst();
+        if (keyQueue.elements.isEmpty()) {
+            queues.remove(keyQueue.key);
+        } else {
+            serviceOrder.addLast(keyQueue);
+        }
+        size--;
+        return e;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            for (KeyQueue<E> keyQueue : serviceOrder) {
+                final Iterator<E> elements = keyQueue.elements.iterator();
+                while (elements.hasNext()) {
+                    if (o.equals(elements.next())) {
+                        elements.remove();
+                        if (keyQueue.elements.isEmpty()) {
+                            queues.remove(keyQueue.key);
+                            serviceOrder.remove(keyQueue);
+                        }
+                        size--;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException("cannot drain a queue into itself");
+        }
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && size > 0) {
+                c.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the queued elements, in the order they would be handed out if no further elements were
+     * offered.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final List<E> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            final List<Iterator<E>> iterators = new ArrayList<>(serviceOrder.size());
+            for (KeyQueue<E> keyQueue : serviceOrder) {
+                iterators.add(keyQueue.elements.iterator());
+            }
+            while (snapshot.size() < size) {
+                for (Iterator<E> iterator : iterators) {
+                    if (iterator.hasNext()) {
+                        snapshot.add(iterator.next());
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        final Iterator<E> it = snapshot.iterator();
+        return new Iterator<E>() {
+            E current;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                current = it.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                FairBlockingQueue.this.remove(current);
+            }
+        };
+    }
+
+    private static final class KeyQueue<E> {
+
+        private final String key;
+        private final ArrayDeque<E> elements = new ArrayDeque<>();
+
+        KeyQueue(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -57,6 +57,19 @@ public class ReleasableLock implements Releasable {
         return this;
     }
 
+    /**
+     * Acquires the lock only if it is not held by another thread at the time of invocation.
+     *
+     * @return <code>true</code> if the lock was acquired, in which case it must be released with {@link #close()}
+     */
+    public boolean tryAcquire() {
+        if (lock.tryLock()) {
+            assert addCurrentThread();
+            return true;
+        }
+        return false;
+    }
+
     private boolean addCurrentThread() {
         final Integer current = holdingThreads.get();
         holdingThreads.set(current == null ? 1 : current + 1);
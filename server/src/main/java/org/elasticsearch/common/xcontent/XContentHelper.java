@@ -21,11 +21,14 @@ package org.elasticsearch.common.xcontent;
 
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.ToXContent.Params;
 
 import java.io.BufferedInputStream;
@@ -116,6 +119,40 @@ public class XContentHelper {
         }
     }
 
+    /**
+     * Filters the given bytes into new bytes of the same content type, streaming them from a parser through the filter to a builder
+     * rather than converting them to a map and back. The content type is auto-detected if it is <code>null</code>.
+     */
+    public static Tuple<XContentType, BytesReference> filter(BytesReference bytes, @Nullable XContentType xContentType,
+                                                             CheckedBiConsumer<XContentParser, XContentBuilder, IOException> filter)
+        throws ElasticsearchParseException {
+        try {
+            final XContentType contentType;
+            InputStream input;
+            Compressor compressor = CompressorFactory.compressor(bytes);
+            if (compressor != null) {
+                InputStream compressedStreamInput = compressor.streamInput(bytes.streamInput());
+                if (compressedStreamInput.markSupported() == false) {
+                    compressedStreamInput = new BufferedInputStream(compressedStreamInput);
+                }
+                input = compressedStreamInput;
+            } else {
+                input = bytes.streamInput();
+            }
+            contentType = xContentType != null ? xContentType : XContentFactory.xContentType(input);
+            XContent xContent = XContentFactory.xContent(Objects.requireNonNull(contentType));
+            // It is safe to use EMPTY here because this never uses namedObject
+            try (XContentParser parser = xContent.createParser(NamedXContentRegistry.EMPTY,
+                    DeprecationHandler.THROW_UNSUPPORTED_OPERATION, input)) {
+                XContentBuilder builder = new XContentBuilder(xContent, new BytesStreamOutput(Math.min(1024, bytes.length())));
+                filter.accept(parser, builder);
+                return new Tuple<>(contentType, BytesReference.bytes(builder));
+            }
+        } catch (IOException e) {
+            throw new ElasticsearchParseException("Failed to filter content", e);
+        }
+    }
+
     /**
      * Convert a string in some {@link XContent} format to a {@link Map}. Throws an {@link ElasticsearchParseException} if there is any
      * error.
@@ -57,11 +57,13 @@ import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -139,7 +141,8 @@ public class PublishClusterStateAction extends AbstractComponent {
                 }
             }
             sendFullVersion = !discoverySettings.getPublishDiff() || clusterChangedEvent.previousState() == null;
-            serializedStates = new HashMap<>();
+            // full states may be serialized lazily from concurrent transport threads when a node rejects a diff
+            serializedStates = new ConcurrentHashMap<>();
             serializedDiffs = new HashMap<>();
 
             // we build these early as a best effort not to commit in the case of error.
@@ -244,8 +247,14 @@ public class PublishClusterStateAction extends AbstractComponent {
         BytesReference bytes = serializedStates.get(node.getVersion());
         if (bytes == null) {
             try {
-                bytes = serializeFullClusterState(clusterState, node.getVersion());
-                serializedStates.put(node.getVersion(), bytes);
+                // nodes that reject a diff fall back here concurrently, make sure the full state is only serialized once per version
+                bytes = serializedStates.computeIfAbsent(node.getVersion(), version -> {
+                    try {
+                        return serializeFullClusterState(clusterState, version);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
             } catch (Exception e) {
                 logger.warn(() -> new ParameterizedMessage("failed to serialize cluster_state before publishing it to node {}", node), e);
                 sendingController.onNodeSendFailed(node, e);
@@ -0,0 +1,310 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.analysis;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexableFieldType;
+import org.apache.lucene.util.AttributeImpl;
+import org.apache.lucene.util.AttributeSource;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.metrics.CounterMetric;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An index time analyzer that remembers the tokens that values of {@link CacheableField}s were analyzed into, so that values
+ * seen again, like the same user agent or log message in many documents, are not analyzed again. All fields share a single cache,
+ * bounded by the estimated number of bytes of the values and tokens it holds and admitting values based on how often they were
+ * seen recently.
+ * <p>
+ * The cache belongs to the index writer the analyzer was created for, which is why it does not need to be invalidated: the
+ * index time analyzer of a field can't change during the lifetime of a writer.
+ */
+public final class TokenStreamCachingAnalyzer extends DelegatingAnalyzerWrapper {
+
+    /** Values that are longer are analyzed without being looked up in the cache. */
+    static final int MAX_VALUE_LENGTH = 1024;
+
+    /** Values that are analyzed into more tokens are not cached. */
+    static final int MAX_TOKENS_PER_VALUE = 256;
+
+    private static final long SHALLOW_KEY_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(CacheKey.class)
+        + RamUsageEstimator.shallowSizeOfInstance(String.class);
+    private static final long SHALLOW_TOKENS_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(CachedTokens.class);
+    private static final long SHALLOW_STATE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(AttributeSource.State.class);
+
+    // the shallow sizes of attribute implementations, which are computed through reflection
+    private static final ClassValue<Long> SHALLOW_ATTRIBUTE_RAM_BYTES_USED = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return RamUsageEstimator.shallowSizeOfInstance(type);
+        }
+    };
+
+    private final Analyzer delegate;
+    private final Cache<CacheKey, CachedTokens> cache;
+    private final CounterMetric hits = new CounterMetric();
+    private final CounterMetric misses = new CounterMetric();
+
+    public TokenStreamCachingAnalyzer(Analyzer delegate, long maxSizeInBytes) {
+        super(Analyzer.PER_FIELD_REUSE_STRATEGY);
+        if (maxSizeInBytes <= 0) {
+            throw new IllegalArgumentException("maxSizeInBytes must be positive but was [" + maxSizeInBytes + "]");
+        }
+        this.delegate = delegate;
+        this.cache = CacheBuilder.<CacheKey, CachedTokens>builder()
+            .setMaximumWeight(maxSizeInBytes)
+            .weigher((key, tokens) -> key.ramBytesUsed() + tokens.ramBytesUsed)
+            .setFrequencyBasedAdmission(true)
+            .build();
+    }
+
+    @Override
+    protected Analyzer getWrappedAnalyzer(String fieldName) {
+        return delegate;
+    }
+
+    /**
+     * @return the number of values whose tokens were replayed from the cache
+     */
+    public long getHitCount() {
+        return hits.count();
+    }
+
+    /**
+     * @return the number of values that were looked up in the cache and analyzed because they were not found
+     */
+    public long getMissCount() {
+        return misses.count();
+    }
+
+    /**
+     * @return the estimated number of bytes used by the cached values and their tokens
+     */
+    public long getCacheSizeInBytes() {
+        return cache.weight();
+    }
+
+    /**
+     * Returns the tokens the given value of a field is analyzed into, from the cache if possible. Otherwise the value is
+     * analyzed and its tokens are added to the cache once the returned stream was fully consumed.
+     */
+    TokenStream cachedTokenStream(String fieldName, String value) {
+        if (value.length() > MAX_VALUE_LENGTH) {
+            return tokenStream(fieldName, value);
+        }
+        CacheKey key = new CacheKey(fieldName, value);
+        CachedTokens tokens = cache.get(key);
+        if (tokens != null) {
+            hits.inc();
+            return new CachedTokenStream(tokens);
+        }
+        misses.inc();
+        return new CapturingTokenFilter(tokenStream(fieldName, value), cache, key);
+    }
+
+    /**
+     * A text field whose analysis can be served from the cache of a {@link TokenStreamCachingAnalyzer}, if the index writer uses one.
+     */
+    public static class CacheableField extends Field {
+
+        public CacheableField(String name, String value, IndexableFieldType type) {
+            super(name, value, type);
+        }
+
+        @Override
+        public TokenStream tokenStream(Analyzer analyzer, TokenStream reuse) {
+            if (analyzer instanceof TokenStreamCachingAnalyzer && fieldType().tokenized() && fieldsData instanceof String) {
+                return ((TokenStreamCachingAnalyzer) analyzer).cachedTokenStream(name(), (String) fieldsData);
+            }
+            return super.tokenStream(analyzer, reuse);
+        }
+    }
+
+    private static final class CacheKey {
+        // the names of fields are shared with the mappings, so only the value counts towards the size of the cache
+        private final String field;
+        private final String value;
+
+        private CacheKey(String field, String value) {
+            this.field = field;
+            this.value = value;
+        }
+
+        private long ramBytesUsed() {
+            return SHALLOW_KEY_RAM_BYTES_USED + RamUsageEstimator.alignObjectSize(
+                RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) Character.BYTES * value.length());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return field.equals(other.field) && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * field.hashCode() + value.hashCode();
+        }
+    }
+
+    private static final class CachedTokens {
+        // the attributes the states are restored into, never modified once cached so that it can be cloned concurrently
+        private final AttributeSource attributes;
+        private final AttributeSource.State[] states;
+        private final AttributeSource.State endState;
+        private final long ramBytesUsed;
+
+        private CachedTokens(AttributeSource attributes, AttributeSource.State[] states, AttributeSource.State endState,
+                             long ramBytesUsed) {
+            this.attributes = attributes;
+            this.states = states;
+            this.endState = endState;
+            this.ramBytesUsed = ramBytesUsed;
+        }
+    }
+
+    /**
+     * Replays cached tokens.
+     */
+    private static final class CachedTokenStream extends TokenStream {
+        private final CachedTokens tokens;
+        private int next;
+
+        private CachedTokenStream(CachedTokens tokens) {
+            super(tokens.attributes.cloneAttributes());
+            this.tokens = tokens;
+        }
+
+        @Override
+        public boolean incrementToken() {
+            if (next == tokens.states.length) {
+                return false;
+            }
+            restoreState(tokens.states[next++]);
+            return true;
+        }
+
+        @Override
+        public void end() {
+            restoreState(tokens.endState);
+        }
+
+        @Override
+        public void reset() {
+            next = 0;
+        }
+    }
+
+    /**
+     * Records the tokens of a value as they are consumed and adds them to the cache if the stream was fully consumed.
+     */
+    private static final class CapturingTokenFilter extends TokenFilter {
+        private final Cache<CacheKey, CachedTokens> cache;
+        private final CacheKey key;
+        // null if the analysis chain does not produce terms as characters
+        private final CharTermAttribute termAttribute;
+        // null if the value has too many tokens to be cached
+        private List<AttributeSource.State> states;
+        // the bytes used by the copies of the terms in the captured states
+        private long termsRamBytesUsed;
+
+        private CapturingTokenFilter(TokenStream input, Cache<CacheKey, CachedTokens> cache, CacheKey key) {
+            super(input);
+            this.cache = cache;
+            this.key = key;
+            this.termAttribute = hasAttribute(CharTermAttribute.class) ? getAttribute(CharTermAttribute.class) : null;
+        }
+
+        @Override
+        public void reset() throws IOException {
+            super.reset();
+            states = new ArrayList<>();
+            termsRamBytesUsed = 0;
+        }
+
+        @Override
+        public boolean incrementToken() throws IOException {
+            if (input.incrementToken() == false) {
+                return false;
+            }
+            if (states != null) {
+                if (states.size() == MAX_TOKENS_PER_VALUE) {
+                    states = null;
+                } else {
+                    states.add(captureState());
+                    if (termAttribute != null) {
+                        // captured states hold copies of the attributes, which for terms are trimmed to their length
+                        termsRamBytesUsed += RamUsageEstimator.alignObjectSize(
+                            RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) Character.BYTES * termAttribute.length());
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void end() throws IOException {
+            super.end();
+            if (states != null) {
+                AttributeSource attributes = cloneAttributes();
+                // computes the state that cloneAttributes uses, so that cloning the cached attributes does not modify them
+                attributes.captureState();
+                AttributeSource.State[] cachedStates = states.toArray(new AttributeSource.State[0]);
+                AttributeSource.State endState = captureState();
+                // every state, the end state and the cached attributes each hold a copy of every attribute
+                long ramBytesUsed = SHALLOW_TOKENS_RAM_BYTES_USED
+                    + RamUsageEstimator.alignObjectSize(
+                        RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * cachedStates.length)
+                    + (cachedStates.length + 2) * attributesRamBytesUsed()
+                    + termsRamBytesUsed;
+                cache.put(key, new CachedTokens(attributes, cachedStates, endState, ramBytesUsed));
+                states = null;
+            }
+        }
+
+        /**
+         * Returns the bytes used by one copy of each attribute of this stream, not counting the contents of the terms.
+         */
+        private long attributesRamBytesUsed() {
+            long ramBytesUsed = 0;
+            for (Iterator<AttributeImpl> it = getAttributeImplsIterator(); it.hasNext(); ) {
+                ramBytesUsed += SHALLOW_STATE_RAM_BYTES_USED + SHALLOW_ATTRIBUTE_RAM_BYTES_USED.get(it.next().getClass());
+            }
+            return ramBytesUsed;
+        }
+    }
+}
@@ -236,6 +236,18 @@ public abstract class Engine implements Closeable {
      */
     public abstract boolean isThrottled();
 
+    /**
+     * Returns the number of text values whose analysis was replayed from the analysis cache of the current index writer.
+     * @see EngineConfig#INDEX_ANALYSIS_CACHE_SIZE_SETTING
+     */
+    public abstract long getAnalysisCacheHitCount();
+
+    /**
+     * Returns the number of text values that were not found in the analysis cache of the current index writer.
+     * @see #getAnalysisCacheHitCount()
+     */
+    public abstract long getAnalysisCacheMissCount();
+
     /** A Lock implementation that always allows the lock to be acquired */
     protected static final class NoOpLock implements Lock {
 
@@ -112,6 +112,16 @@ public final class EngineConfig {
     public static final Setting<Boolean> INDEX_OPTIMIZE_AUTO_GENERATED_IDS = Setting.boolSetting("index.optimize_auto_generated_id", true,
         Property.IndexScope, Property.Dynamic);
 
+    /**
+     * The maximum size of the cache that each shard keeps of the tokens of text values, so that values that are indexed over and over
+     * again, like user agents or the messages of log lines, are not analyzed every time. The size is estimated and covers all text
+     * fields. The cache is empty whenever a new index writer is opened.
+     * The default is <code>0</code>, which disables the cache. This setting is <b>not</b> realtime updateable.
+     */
+    public static final Setting<ByteSizeValue> INDEX_ANALYSIS_CACHE_SIZE_SETTING =
+        Setting.byteSizeSetting("index.indexing.analysis_cache.size", new ByteSizeValue(0), new ByteSizeValue(0),
+            new ByteSizeValue(1, ByteSizeUnit.GB), Property.IndexScope);
+
     private final TranslogConfig translogConfig;
 
     /**
@@ -21,6 +21,7 @@ package org.elasticsearch.index.engine;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexReader;
@@ -60,6 +61,7 @@ import org.elasticsearch.common.util.concurrent.ReleasableLock;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.analysis.TokenStreamCachingAnalyzer;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.ParseContext;
 import org.elasticsearch.index.merge.MergeStats;
@@ -105,6 +107,9 @@ public class InternalEngine extends Engine {
 
     private final IndexWriter indexWriter;
 
+    // the analysis cache of the index writer, null if disabled
+    private volatile TokenStreamCachingAnalyzer analysisCache;
+
     private final ExternalSearcherManager externalSearcherManager;
     private final SearcherManager internalSearcherManager;
 
@@ -1893,7 +1898,16 @@ public class InternalEngine extends Engine {
     }
 
     private IndexWriterConfig getIndexWriterConfig() {
-        final IndexWriterConfig iwc = new IndexWriterConfig(engineConfig.getAnalyzer());
+        final long analysisCacheSize = engineConfig.getIndexSettings().getValue(EngineConfig.INDEX_ANALYSIS_CACHE_SIZE_SETTING).getBytes();
+        final Analyzer analyzer;
+        if (analysisCacheSize > 0) {
+            // every writer gets its own cache, which starts empty
+            analysisCache = new TokenStreamCachingAnalyzer(engineConfig.getAnalyzer(), analysisCacheSize);
+            analyzer = analysisCache;
+        } else {
+            analyzer = engineConfig.getAnalyzer();
+        }
+        final IndexWriterConfig iwc = new IndexWriterConfig(analyzer);
         iwc.setCommitOnClose(false); // we by default don't commit on close
         iwc.setOpenMode(IndexWriterConfig.OpenMode.APPEND);
         iwc.setIndexDeletionPolicy(combinedDeletionPolicy);
@@ -1984,6 +1998,18 @@ public class InternalEngine extends Engine {
         return throttle.getThrottleTimeInMillis();
     }
 
+    @Override
+    public long getAnalysisCacheHitCount() {
+        TokenStreamCachingAnalyzer analyzer = analysisCache;
+        return analyzer == null ? 0 : analyzer.getHitCount();
+    }
+
+    @Override
+    public long getAnalysisCacheMissCount() {
+        TokenStreamCachingAnalyzer analyzer = analysisCache;
+        return analyzer == null ? 0 : analyzer.getMissCount();
+    }
+
     long getGcDeletesInMillis() {
         return engineConfig.getIndexSettings().getGcDeletesInMillis();
     }
@@ -125,6 +125,10 @@ public abstract class ScriptDocValues<T> extends AbstractList<T> {
 
         @Override
         public void setNextDocId(int docId) throws IOException {
+            if (this.docId == docId) {
+                // scripts look the field up on every access, the values of this document are loaded already
+                return;
+            }
             this.docId = docId;
             if (in.advanceExact(docId)) {
                 resize(in.docValueCount());
@@ -349,6 +353,7 @@ public abstract class ScriptDocValues<T> extends AbstractList<T> {
         private final SortedNumericDoubleValues in;
         private double[] values = new double[0];
         private int count;
+        private int docId = -1;
 
         public Doubles(SortedNumericDoubleValues in) {
             this.in = in;
@@ -356,6 +361,11 @@ public abstract class ScriptDocValues<T> extends AbstractList<T> {
 
         @Override
         public void setNextDocId(int docId) throws IOException {
+            if (this.docId == docId) {
+                // scripts look the field up on every access, the values of this document are loaded already
+                return;
+            }
+            this.docId = docId;
             if (in.advanceExact(docId)) {
                 resize(in.docValueCount());
                 for (int i = 0; i < count; i++) {
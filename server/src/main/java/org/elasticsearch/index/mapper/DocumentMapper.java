@@ -121,6 +121,8 @@ public class DocumentMapper implements ToXContentFragment {
 
     private final Map<String, ObjectMapper> objectMappers;
 
+    private final ObjectFieldLookup objectFieldLookup;
+
     private final boolean hasNestedObjects;
 
     public DocumentMapper(MapperService mapperService, Mapping mapping) {
@@ -163,6 +165,7 @@ public class DocumentMapper implements ToXContentFragment {
             }
         }
         this.hasNestedObjects = hasNestedObjects;
+        this.objectFieldLookup = new ObjectFieldLookup(mapping.root);
 
         try {
             mappingSource = new CompressedXContent(this, XContentType.JSON, ToXContent.EMPTY_PARAMS);
@@ -240,6 +243,10 @@ public class DocumentMapper implements ToXContentFragment {
         return this.objectMappers;
     }
 
+    ObjectFieldLookup objectFieldLookup() {
+        return this.objectFieldLookup;
+    }
+
     public ParsedDocument parse(SourceToParse source) throws MapperParsingException {
         return documentParser.parseDocument(source);
     }
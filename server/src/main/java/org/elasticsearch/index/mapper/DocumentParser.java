@@ -386,7 +386,9 @@ final class DocumentParser {
                 parseArray(context, mapper, currentFieldName);
             } else if (token == XContentParser.Token.FIELD_NAME) {
                 currentFieldName = parser.currentName();
-                if (MapperService.isMetadataField(context.path().pathAsText(currentFieldName))) {
+                // mapped fields can't have the name of a metadata field, only the path of other fields needs to be checked
+                if (getMappedField(context, mapper, currentFieldName) == null
+                        && MapperService.isMetadataField(context.path().pathAsText(currentFieldName))) {
                     throw new MapperParsingException("Field [" + currentFieldName + "] is a metadata field and cannot be added inside a document. Use the index API request parameters.");
                 }
             } else if (token == XContentParser.Token.VALUE_NULL) {
@@ -472,8 +474,12 @@ final class DocumentParser {
     private static void parseObject(final ParseContext context, ObjectMapper mapper, String currentFieldName) throws IOException {
         assert currentFieldName != null;
 
-        final String[] paths = splitAndValidatePath(currentFieldName);
-        Mapper objectMapper = getMapper(mapper, currentFieldName, paths);
+        Mapper objectMapper = getMappedField(context, mapper, currentFieldName);
+        String[] paths = null;
+        if (objectMapper == null) {
+            paths = splitAndValidatePath(currentFieldName);
+            objectMapper = getMapper(mapper, currentFieldName, paths);
+        }
         if (objectMapper != null) {
             context.path().add(currentFieldName);
             parseObjectOrField(context, objectMapper);
@@ -509,8 +515,12 @@ final class DocumentParser {
     private static void parseArray(ParseContext context, ObjectMapper parentMapper, String lastFieldName) throws IOException {
         String arrayFieldName = lastFieldName;
 
-        final String[] paths = splitAndValidatePath(arrayFieldName);
-        Mapper mapper = getMapper(parentMapper, lastFieldName, paths);
+        Mapper mapper = getMappedField(context, parentMapper, lastFieldName);
+        String[] paths = null;
+        if (mapper == null) {
+            paths = splitAndValidatePath(arrayFieldName);
+            mapper = getMapper(parentMapper, lastFieldName, paths);
+        }
         if (mapper != null) {
             // There is a concrete mapper for this field already. Need to check if the mapper
             // expects an array, if so we pass the context straight to the mapper and if not
@@ -580,8 +590,12 @@ final class DocumentParser {
             throw new MapperParsingException("object mapping [" + parentMapper.name() + "] trying to serialize a value with no field associated with it, current value [" + context.parser().textOrNull() + "]");
         }
 
-        final String[] paths = splitAndValidatePath(currentFieldName);
-        Mapper mapper = getMapper(parentMapper, currentFieldName, paths);
+        Mapper mapper = getMappedField(context, parentMapper, currentFieldName);
+        String[] paths = null;
+        if (mapper == null) {
+            paths = splitAndValidatePath(currentFieldName);
+            mapper = getMapper(parentMapper, currentFieldName, paths);
+        }
         if (mapper != null) {
             parseObjectOrField(context, mapper);
         } else {
@@ -597,7 +611,10 @@ final class DocumentParser {
 
     private static void parseNullValue(ParseContext context, ObjectMapper parentMapper, String lastFieldName) throws IOException {
         // we can only handle null values if we have mappings for them
-        Mapper mapper = getMapper(parentMapper, lastFieldName, splitAndValidatePath(lastFieldName));
+        Mapper mapper = getMappedField(context, parentMapper, lastFieldName);
+        if (mapper == null) {
+            mapper = getMapper(parentMapper, lastFieldName, splitAndValidatePath(lastFieldName));
+        }
         if (mapper != null) {
             // TODO: passing null to an object seems bogus?
             parseObjectOrField(context, mapper);
@@ -916,6 +933,11 @@ final class DocumentParser {
         return dynamic;
     }
 
+    // looks up a child mapper among the fields of the mapping, without splitting and validating the field name
+    private static Mapper getMappedField(ParseContext context, ObjectMapper objectMapper, String fieldName) {
+        return context.docMapper().objectFieldLookup().getMapper(objectMapper, fieldName);
+    }
+
     // looks up a child mapper, but takes into account field names that expand to objects
     private static Mapper getMapper(ObjectMapper objectMapper, String fieldName, String[] subfields) {
         for (int i = 0; i < subfields.length - 1; ++i) {
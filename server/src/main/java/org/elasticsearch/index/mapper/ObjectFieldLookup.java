@@ -0,0 +1,77 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.elasticsearch.common.Strings;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Resolves the names of the fields of an object, as they appear in documents, to the mappers of a {@link DocumentMapper}.
+ * <p>
+ * Names with dots, like <code>host.name</code>, are resolved through the objects they expand to, unless one of these objects is
+ * nested. This is computed once per mapping so that parsing a document does not need to split and validate the names of mapped
+ * fields. Looking up a name does not allocate either: the JSON parser canonicalizes field names, so every occurrence of a name
+ * is the same string and its hash is only computed once. Objects that are not part of the mapping, like those that are added
+ * dynamically while parsing a document, and names that this lookup doesn't resolve, are left to {@link DocumentParser}.
+ */
+final class ObjectFieldLookup {
+
+    private final Map<ObjectMapper, Map<String, Mapper>> fieldsByObject = new IdentityHashMap<>();
+
+    ObjectFieldLookup(RootObjectMapper root) {
+        collect(root);
+    }
+
+    /**
+     * @return the mapper of the field with the given name in the given object or <code>null</code> if it is not known
+     */
+    Mapper getMapper(ObjectMapper objectMapper, String fieldName) {
+        Map<String, Mapper> fields = fieldsByObject.get(objectMapper);
+        return fields == null ? null : fields.get(fieldName);
+    }
+
+    private Map<String, Mapper> collect(ObjectMapper objectMapper) {
+        Map<String, Mapper> fields = new HashMap<>();
+        for (Mapper mapper : objectMapper) {
+            String name = mapper.simpleName();
+            if (Strings.hasText(name) == false || name.indexOf('.') != -1) {
+                // names that would be rejected or split differently are resolved the slow way
+                continue;
+            }
+            fields.put(name, mapper);
+            if (mapper instanceof ObjectMapper) {
+                ObjectMapper child = (ObjectMapper) mapper;
+                Map<String, Mapper> childFields = collect(child);
+                if (child.nested().isNested() == false) {
+                    for (Map.Entry<String, Mapper> entry : childFields.entrySet()) {
+                        fields.put(name + "." + entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        }
+        fields = fields.isEmpty() ? Collections.emptyMap() : fields;
+        fieldsByObject.put(objectMapper, fields);
+        return fields;
+    }
+}
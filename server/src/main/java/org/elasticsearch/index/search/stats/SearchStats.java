@@ -19,11 +19,13 @@
 
 package org.elasticsearch.index.search.stats;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.metrics.LatencyHistogram;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
@@ -54,6 +56,9 @@ public class SearchStats implements Writeable, ToXContentFragment {
         private long suggestTimeInMillis;
         private long suggestCurrent;
 
+        private LatencyHistogram queryLatency = new LatencyHistogram();
+        private LatencyHistogram fetchLatency = new LatencyHistogram();
+
         private Stats() {
             // for internal use, initializes all counts to 0
         }
@@ -63,6 +68,18 @@ public class SearchStats implements Writeable, ToXContentFragment {
                 long fetchCount, long fetchTimeInMillis, long fetchCurrent,
                 long scrollCount, long scrollTimeInMillis, long scrollCurrent,
                 long suggestCount, long suggestTimeInMillis, long suggestCurrent
+        ) {
+            this(queryCount, queryTimeInMillis, queryCurrent, fetchCount, fetchTimeInMillis, fetchCurrent,
+                scrollCount, scrollTimeInMillis, scrollCurrent, suggestCount, suggestTimeInMillis, suggestCurrent,
+                new LatencyHistogram(), new LatencyHistogram());
+        }
+
+        public Stats(
+                long queryCount, long queryTimeInMillis, long queryCurrent,
+                long fetchCount, long fetchTimeInMillis, long fetchCurrent,
+                long scrollCount, long scrollTimeInMillis, long scrollCurrent,
+                long suggestCount, long suggestTimeInMillis, long suggestCurrent,
+                LatencyHistogram queryLatency, LatencyHistogram fetchLatency
         ) {
             this.queryCount = queryCount;
             this.queryTimeInMillis = queryTimeInMillis;
@@ -79,6 +96,9 @@ public class SearchStats implements Writeable, ToXContentFragment {
             this.suggestCount = suggestCount;
             this.suggestTimeInMillis = suggestTimeInMillis;
             this.suggestCurrent = suggestCurrent;
+
+            this.queryLatency = queryLatency;
+            this.fetchLatency = fetchLatency;
         }
 
         private Stats(StreamInput in) throws IOException {
@@ -97,6 +117,11 @@ public class SearchStats implements Writeable, ToXContentFragment {
             suggestCount = in.readVLong();
             suggestTimeInMillis = in.readVLong();
             suggestCurrent = in.readVLong();
+
+            if (in.getVersion().onOrAfter(Version.V_7_0_0_alpha1)) {
+                queryLatency = new LatencyHistogram(in);
+                fetchLatency = new LatencyHistogram(in);
+            }
         }
 
         public void add(Stats stats) {
@@ -115,6 +140,9 @@ public class SearchStats implements Writeable, ToXContentFragment {
             suggestCount += stats.suggestCount;
             suggestTimeInMillis += stats.suggestTimeInMillis;
             suggestCurrent += stats.suggestCurrent;
+
+            queryLatency.add(stats.queryLatency);
+            fetchLatency.add(stats.fetchLatency);
         }
 
         public long getQueryCount() {
@@ -133,6 +161,13 @@ public class SearchStats implements Writeable, ToXContentFragment {
             return queryCurrent;
         }
 
+        /**
+         * The distribution of query phase latencies.
+         */
+        public LatencyHistogram getQueryLatency() {
+            return queryLatency;
+        }
+
         public long getFetchCount() {
             return fetchCount;
         }
@@ -149,6 +184,13 @@ public class SearchStats implements Writeable, ToXContentFragment {
             return fetchCurrent;
         }
 
+        /**
+         * The distribution of fetch phase latencies.
+         */
+        public LatencyHistogram getFetchLatency() {
+            return fetchLatency;
+        }
+
         public long getScrollCount() {
             return scrollCount;
         }
@@ -202,6 +244,11 @@ public class SearchStats implements Writeable, ToXContentFragment {
             out.writeVLong(suggestCount);
             out.writeVLong(suggestTimeInMillis);
             out.writeVLong(suggestCurrent);
+
+            if (out.getVersion().onOrAfter(Version.V_7_0_0_alpha1)) {
+                queryLatency.writeTo(out);
+                fetchLatency.writeTo(out);
+            }
         }
 
         @Override
@@ -209,10 +256,16 @@ public class SearchStats implements Writeable, ToXContentFragment {
             builder.field(Fields.QUERY_TOTAL, queryCount);
             builder.humanReadableField(Fields.QUERY_TIME_IN_MILLIS, Fields.QUERY_TIME, getQueryTime());
             builder.field(Fields.QUERY_CURRENT, queryCurrent);
+            builder.startObject(Fields.QUERY_LATENCY_IN_MICROS);
+            queryLatency.toXContent(builder, params);
+            builder.endObject();
 
             builder.field(Fields.FETCH_TOTAL, fetchCount);
             builder.humanReadableField(Fields.FETCH_TIME_IN_MILLIS, Fields.FETCH_TIME, getFetchTime());
             builder.field(Fields.FETCH_CURRENT, fetchCurrent);
+            builder.startObject(Fields.FETCH_LATENCY_IN_MICROS);
+            fetchLatency.toXContent(builder, params);
+            builder.endObject();
 
             builder.field(Fields.SCROLL_TOTAL, scrollCount);
             builder.humanReadableField(Fields.SCROLL_TIME_IN_MILLIS, Fields.SCROLL_TIME, getScrollTime());
@@ -318,10 +371,12 @@ public class SearchStats implements Writeable, ToXContentFragment {
         static final String QUERY_TIME = "query_time";
         static final String QUERY_TIME_IN_MILLIS = "query_time_in_millis";
         static final String QUERY_CURRENT = "query_current";
+        static final String QUERY_LATENCY_IN_MICROS = "query_latency_in_micros";
         static final String FETCH_TOTAL = "fetch_total";
         static final String FETCH_TIME = "fetch_time";
         static final String FETCH_TIME_IN_MILLIS = "fetch_time_in_millis";
         static final String FETCH_CURRENT = "fetch_current";
+        static final String FETCH_LATENCY_IN_MICROS = "fetch_latency_in_micros";
         static final String SCROLL_TOTAL = "scroll_total";
         static final String SCROLL_TIME = "scroll_time";
         static final String SCROLL_TIME_IN_MILLIS = "scroll_time_in_millis";
@@ -21,6 +21,7 @@ package org.elasticsearch.index.search.stats;
 
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.HistogramMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.index.shard.SearchOperationListener;
@@ -97,6 +98,7 @@ public final class ShardSearchStats implements SearchOperationListener {
                 assert statsHolder.suggestCurrent.count() >= 0;
             } else {
                 statsHolder.queryMetric.inc(tookInNanos);
+                statsHolder.queryLatency.inc(tookInNanos);
                 statsHolder.queryCurrent.dec();
                 assert statsHolder.queryCurrent.count() >= 0;
             }
@@ -117,6 +119,7 @@ public final class ShardSearchStats implements SearchOperationListener {
     public void onFetchPhase(SearchContext searchContext, long tookInNanos) {
         computeStats(searchContext, statsHolder -> {
             statsHolder.fetchMetric.inc(tookInNanos);
+            statsHolder.fetchLatency.inc(tookInNanos);
             statsHolder.fetchCurrent.dec();
             assert statsHolder.fetchCurrent.count() >= 0;
         });
@@ -195,6 +198,8 @@ public final class ShardSearchStats implements SearchOperationListener {
          */
         public final MeanMetric scrollMetric = new MeanMetric();
         public final MeanMetric suggestMetric = new MeanMetric();
+        public final HistogramMetric queryLatency = new HistogramMetric();
+        public final HistogramMetric fetchLatency = new HistogramMetric();
         public final CounterMetric queryCurrent = new CounterMetric();
         public final CounterMetric fetchCurrent = new CounterMetric();
         public final CounterMetric scrollCurrent = new CounterMetric();
@@ -205,7 +210,8 @@ public final class ShardSearchStats implements SearchOperationListener {
                     queryMetric.count(), TimeUnit.NANOSECONDS.toMillis(queryMetric.sum()), queryCurrent.count(),
                     fetchMetric.count(), TimeUnit.NANOSECONDS.toMillis(fetchMetric.sum()), fetchCurrent.count(),
                     scrollMetric.count(), TimeUnit.MICROSECONDS.toMillis(scrollMetric.sum()), scrollCurrent.count(),
-                    suggestMetric.count(), TimeUnit.NANOSECONDS.toMillis(suggestMetric.sum()), suggestCurrent.count()
+                    suggestMetric.count(), TimeUnit.NANOSECONDS.toMillis(suggestMetric.sum()), suggestCurrent.count(),
+                    queryLatency.snapshot(), fetchLatency.snapshot()
             );
         }
 
@@ -218,6 +224,8 @@ public final class ShardSearchStats implements SearchOperationListener {
             fetchMetric.clear();
             scrollMetric.clear();
             suggestMetric.clear();
+            queryLatency.clear();
+            fetchLatency.clear();
         }
     }
 }
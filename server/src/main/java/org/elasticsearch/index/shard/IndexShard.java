@@ -881,14 +881,20 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         Engine engine = getEngineOrNull();
         final boolean throttled;
         final long throttleTimeInMillis;
+        final long analysisCacheHits;
+        final long analysisCacheMisses;
         if (engine == null) {
             throttled = false;
             throttleTimeInMillis = 0;
+            analysisCacheHits = 0;
+            analysisCacheMisses = 0;
         } else {
             throttled = engine.isThrottled();
             throttleTimeInMillis = engine.getIndexThrottleTimeInMillis();
+            analysisCacheHits = engine.getAnalysisCacheHitCount();
+            analysisCacheMisses = engine.getAnalysisCacheMissCount();
         }
-        return internalIndexingStats.stats(throttled, throttleTimeInMillis, types);
+        return internalIndexingStats.stats(throttled, throttleTimeInMillis, analysisCacheHits, analysisCacheMisses, types);
     }
 
     public SearchStats searchStats(String... groups) {
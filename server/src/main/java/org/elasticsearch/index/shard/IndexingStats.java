@@ -19,10 +19,12 @@
 
 package org.elasticsearch.index.shard;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.metrics.LatencyHistogram;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
@@ -46,10 +48,22 @@ public class IndexingStats implements Streamable, ToXContentFragment {
         private long noopUpdateCount;
         private long throttleTimeInMillis;
         private boolean isThrottled;
+        private LatencyHistogram indexLatency = new LatencyHistogram();
+        private LatencyHistogram deleteLatency = new LatencyHistogram();
+        private long analysisCacheHitCount;
+        private long analysisCacheMissCount;
 
         Stats() {}
 
         public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long indexFailedCount, long deleteCount, long deleteTimeInMillis, long deleteCurrent, long noopUpdateCount, boolean isThrottled, long throttleTimeInMillis) {
+            this(indexCount, indexTimeInMillis, indexCurrent, indexFailedCount, deleteCount, deleteTimeInMillis, deleteCurrent,
+                noopUpdateCount, isThrottled, throttleTimeInMillis, new LatencyHistogram(), new LatencyHistogram(), 0, 0);
+        }
+
+        public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long indexFailedCount, long deleteCount,
+                     long deleteTimeInMillis, long deleteCurrent, long noopUpdateCount, boolean isThrottled, long throttleTimeInMillis,
+                     LatencyHistogram indexLatency, LatencyHistogram deleteLatency, long analysisCacheHitCount,
+                     long analysisCacheMissCount) {
             this.indexCount = indexCount;
             this.indexTimeInMillis = indexTimeInMillis;
             this.indexCurrent = indexCurrent;
@@ -60,6 +74,10 @@ public class IndexingStats implements Streamable, ToXContentFragment {
             this.noopUpdateCount = noopUpdateCount;
             this.isThrottled = isThrottled;
             this.throttleTimeInMillis = throttleTimeInMillis;
+            this.indexLatency = indexLatency;
+            this.deleteLatency = deleteLatency;
+            this.analysisCacheHitCount = analysisCacheHitCount;
+            this.analysisCacheMissCount = analysisCacheMissCount;
         }
 
         public void add(Stats stats) {
@@ -77,6 +95,12 @@ public class IndexingStats implements Streamable, ToXContentFragment {
             if (isThrottled != stats.isThrottled) {
                 isThrottled = true; //When combining if one is throttled set result to throttled.
             }
+
+            indexLatency.add(stats.indexLatency);
+            deleteLatency.add(stats.deleteLatency);
+
+            analysisCacheHitCount += stats.analysisCacheHitCount;
+            analysisCacheMissCount += stats.analysisCacheMissCount;
         }
 
         /**
@@ -99,6 +123,13 @@ public class IndexingStats implements Streamable, ToXContentFragment {
          */
         public long getIndexCurrent() { return indexCurrent;}
 
+        /**
+         * The distribution of index operation latencies.
+         */
+        public LatencyHistogram getIndexLatency() {
+            return indexLatency;
+        }
+
         /**
          * Returns the number of delete operation executed
          */
@@ -128,10 +159,31 @@ public class IndexingStats implements Streamable, ToXContentFragment {
             return deleteCurrent;
         }
 
+        /**
+         * The distribution of delete operation latencies.
+         */
+        public LatencyHistogram getDeleteLatency() {
+            return deleteLatency;
+        }
+
         public long getNoopUpdateCount() {
             return noopUpdateCount;
         }
 
+        /**
+         * The number of text values whose analysis was served from the analysis cache.
+         */
+        public long getAnalysisCacheHitCount() {
+            return analysisCacheHitCount;
+        }
+
+        /**
+         * The number of text values that were analyzed because they were not found in the analysis cache.
+         */
+        public long getAnalysisCacheMissCount() {
+            return analysisCacheMissCount;
+        }
+
         public static Stats readStats(StreamInput in) throws IOException {
             Stats stats = new Stats();
             stats.readFrom(in);
@@ -150,6 +202,12 @@ public class IndexingStats implements Streamable, ToXContentFragment {
             noopUpdateCount = in.readVLong();
             isThrottled = in.readBoolean();
             throttleTimeInMillis = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_7_0_0_alpha1)) {
+                indexLatency = new LatencyHistogram(in);
+                deleteLatency = new LatencyHistogram(in);
+                analysisCacheHitCount = in.readVLong();
+                analysisCacheMissCount = in.readVLong();
+            }
         }
 
         @Override
@@ -164,7 +222,12 @@ public class IndexingStats implements Streamable, ToXContentFragment {
             out.writeVLong(noopUpdateCount);
             out.writeBoolean(isThrottled);
             out.writeLong(throttleTimeInMillis);
-
+            if (out.getVersion().onOrAfter(Version.V_7_0_0_alpha1)) {
+                indexLatency.writeTo(out);
+                deleteLatency.writeTo(out);
+                out.writeVLong(analysisCacheHitCount);
+                out.writeVLong(analysisCacheMissCount);
+            }
         }
 
         @Override
@@ -173,12 +236,20 @@ public class IndexingStats implements Streamable, ToXContentFragment {
             builder.humanReadableField(Fields.INDEX_TIME_IN_MILLIS, Fields.INDEX_TIME, getIndexTime());
             builder.field(Fields.INDEX_CURRENT, indexCurrent);
             builder.field(Fields.INDEX_FAILED, indexFailedCount);
+            builder.startObject(Fields.INDEX_LATENCY_IN_MICROS);
+            indexLatency.toXContent(builder, params);
+            builder.endObject();
 
             builder.field(Fields.DELETE_TOTAL, deleteCount);
             builder.humanReadableField(Fields.DELETE_TIME_IN_MILLIS, Fields.DELETE_TIME, getDeleteTime());
             builder.field(Fields.DELETE_CURRENT, deleteCurrent);
+            builder.startObject(Fields.DELETE_LATENCY_IN_MICROS);
+            deleteLatency.toXContent(builder, params);
+            builder.endObject();
 
             builder.field(Fields.NOOP_UPDATE_TOTAL, noopUpdateCount);
+            builder.field(Fields.ANALYSIS_CACHE_HIT_TOTAL, analysisCacheHitCount);
+            builder.field(Fields.ANALYSIS_CACHE_MISS_TOTAL, analysisCacheMissCount);
 
             builder.field(Fields.IS_THROTTLED, isThrottled);
             builder.humanReadableField(Fields.THROTTLED_TIME_IN_MILLIS, Fields.THROTTLED_TIME, getThrottleTime());
@@ -265,11 +336,15 @@ public class IndexingStats implements Streamable, ToXContentFragment {
         static final String INDEX_TIME_IN_MILLIS = "index_time_in_millis";
         static final String INDEX_CURRENT = "index_current";
         static final String INDEX_FAILED = "index_failed";
+        static final String INDEX_LATENCY_IN_MICROS = "index_latency_in_micros";
         static final String DELETE_TOTAL = "delete_total";
         static final String DELETE_TIME = "delete_time";
         static final String DELETE_TIME_IN_MILLIS = "delete_time_in_millis";
         static final String DELETE_CURRENT = "delete_current";
+        static final String DELETE_LATENCY_IN_MICROS = "delete_latency_in_micros";
         static final String NOOP_UPDATE_TOTAL = "noop_update_total";
+        static final String ANALYSIS_CACHE_HIT_TOTAL = "analysis_cache_hit_total";
+        static final String ANALYSIS_CACHE_MISS_TOTAL = "analysis_cache_miss_total";
         static final String IS_THROTTLED = "is_throttled";
         static final String THROTTLED_TIME_IN_MILLIS = "throttle_time_in_millis";
         static final String THROTTLED_TIME = "throttle_time";
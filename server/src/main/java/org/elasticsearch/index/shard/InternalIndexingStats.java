@@ -21,6 +21,7 @@ package org.elasticsearch.index.shard;
 
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.HistogramMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.index.engine.Engine;
@@ -44,19 +45,20 @@ final class InternalIndexingStats implements IndexingOperationListener {
      * is returned for them. If they are set, then only types provided will be returned, or
      * <tt>_all</tt> for all types.
      */
-    IndexingStats stats(boolean isThrottled, long currentThrottleInMillis, String... types) {
-        IndexingStats.Stats total = totalStats.stats(isThrottled, currentThrottleInMillis);
+    IndexingStats stats(boolean isThrottled, long currentThrottleInMillis, long analysisCacheHits, long analysisCacheMisses,
+                        String... types) {
+        IndexingStats.Stats total = totalStats.stats(isThrottled, currentThrottleInMillis, analysisCacheHits, analysisCacheMisses);
         Map<String, IndexingStats.Stats> typesSt = null;
         if (types != null && types.length > 0) {
             typesSt = new HashMap<>(typesStats.size());
             if (types.length == 1 && types[0].equals("_all")) {
                 for (Map.Entry<String, StatsHolder> entry : typesStats.entrySet()) {
-                    typesSt.put(entry.getKey(), entry.getValue().stats(isThrottled, currentThrottleInMillis));
+                    typesSt.put(entry.getKey(), entry.getValue().stats(isThrottled, currentThrottleInMillis, 0, 0));
                 }
             } else {
                 for (Map.Entry<String, StatsHolder> entry : typesStats.entrySet()) {
                     if (Regex.simpleMatch(types, entry.getKey())) {
-                        typesSt.put(entry.getKey(), entry.getValue().stats(isThrottled, currentThrottleInMillis));
+                        typesSt.put(entry.getKey(), entry.getValue().stats(isThrottled, currentThrottleInMillis, 0, 0));
                     }
                 }
             }
@@ -80,9 +82,11 @@ final class InternalIndexingStats implements IndexingOperationListener {
                 if (index.origin().isRecovery() == false) {
                     long took = result.getTook();
                     totalStats.indexMetric.inc(took);
+                    totalStats.indexLatency.inc(took);
                     totalStats.indexCurrent.dec();
                     StatsHolder typeStats = typeStats(index.type());
                     typeStats.indexMetric.inc(took);
+                    typeStats.indexLatency.inc(took);
                     typeStats.indexCurrent.dec();
                 }
                 break;
@@ -121,9 +125,11 @@ final class InternalIndexingStats implements IndexingOperationListener {
                 if (!delete.origin().isRecovery()) {
                     long took = result.getTook();
                     totalStats.deleteMetric.inc(took);
+                    totalStats.deleteLatency.inc(took);
                     totalStats.deleteCurrent.dec();
                     StatsHolder typeStats = typeStats(delete.type());
                     typeStats.deleteMetric.inc(took);
+                    typeStats.deleteLatency.inc(took);
                     typeStats.deleteCurrent.dec();
                 }
                 break;
@@ -165,21 +171,26 @@ final class InternalIndexingStats implements IndexingOperationListener {
     static class StatsHolder {
         private final MeanMetric indexMetric = new MeanMetric();
         private final MeanMetric deleteMetric = new MeanMetric();
+        private final HistogramMetric indexLatency = new HistogramMetric();
+        private final HistogramMetric deleteLatency = new HistogramMetric();
         private final CounterMetric indexCurrent = new CounterMetric();
         private final CounterMetric indexFailed = new CounterMetric();
         private final CounterMetric deleteCurrent = new CounterMetric();
         private final CounterMetric noopUpdates = new CounterMetric();
 
-        IndexingStats.Stats stats(boolean isThrottled, long currentThrottleMillis) {
+        IndexingStats.Stats stats(boolean isThrottled, long currentThrottleMillis, long analysisCacheHits, long analysisCacheMisses) {
             return new IndexingStats.Stats(
                 indexMetric.count(), TimeUnit.NANOSECONDS.toMillis(indexMetric.sum()), indexCurrent.count(), indexFailed.count(),
                 deleteMetric.count(), TimeUnit.NANOSECONDS.toMillis(deleteMetric.sum()), deleteCurrent.count(),
-                noopUpdates.count(), isThrottled, TimeUnit.MILLISECONDS.toMillis(currentThrottleMillis));
+                noopUpdates.count(), isThrottled, TimeUnit.MILLISECONDS.toMillis(currentThrottleMillis),
+                indexLatency.snapshot(), deleteLatency.snapshot(), analysisCacheHits, analysisCacheMisses);
         }
 
         void clear() {
             indexMetric.clear();
             deleteMetric.clear();
+            indexLatency.clear();
+            deleteLatency.clear();
         }
     }
 }
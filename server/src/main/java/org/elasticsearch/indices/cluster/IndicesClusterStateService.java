@@ -22,6 +22,7 @@ package org.elasticsearch.indices.cluster;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.store.LockObtainFailedException;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
@@ -43,6 +44,8 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
@@ -77,16 +80,23 @@ import org.elasticsearch.threadpool.ThreadPool;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -97,6 +107,15 @@ import static org.elasticsearch.indices.cluster.IndicesClusterStateService.Alloc
 
 public class IndicesClusterStateService extends AbstractLifecycleComponent implements ClusterStateApplier {
 
+    /**
+     * The number of existing indices whose metadata and mappings are updated concurrently when a new cluster state is applied. The
+     * cluster applier thread always takes part, additional workers are forked on the generic thread pool, so the settings update
+     * consumers and mapping updates of an index may run on a generic thread. Indices are still created one at a time since
+     * {@link IndicesService#createIndex} is synchronized.
+     */
+    public static final Setting<Integer> INDICES_CLUSTER_APPLY_CONCURRENCY_SETTING =
+        Setting.intSetting("indices.cluster.apply_concurrency", 1, 1, Property.NodeScope);
+
     final AllocatedIndices<? extends Shard, ? extends AllocatedIndex<? extends Shard>> indicesService;
     private final ClusterService clusterService;
     private final ThreadPool threadPool;
@@ -118,6 +137,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
     private final List<IndexEventListener> buildInIndexListener;
     private final PrimaryReplicaSyncer primaryReplicaSyncer;
     private final Consumer<ShardId> globalCheckpointSyncer;
+    private final int applyConcurrency;
+    private final TimeValue slowIndexLoggingThreshold;
 
     @Inject
     public IndicesClusterStateService(Settings settings,
@@ -173,6 +194,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
         this.primaryReplicaSyncer = primaryReplicaSyncer;
         this.globalCheckpointSyncer = globalCheckpointSyncer;
         this.sendRefreshMapping = this.settings.getAsBoolean("indices.cluster.send_refresh_mapping", true);
+        this.applyConcurrency = INDICES_CLUSTER_APPLY_CONCURRENCY_SETTING.get(settings);
+        this.slowIndexLoggingThreshold = ClusterService.CLUSTER_SERVICE_SLOW_TASK_LOGGING_THRESHOLD_SETTING.get(settings);
     }
 
     @Override
@@ -442,7 +465,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             }
         }
 
-        for (Map.Entry<Index, List<ShardRouting>> entry : indicesToCreate.entrySet()) {
+        // IndicesService#createIndex is synchronized, creating indices concurrently would only contend on its lock
+        forEachIndex(indicesToCreate.entrySet(), Map.Entry::getKey, "create", 1, entry -> {
             final Index index = entry.getKey();
             final IndexMetaData indexMetaData = state.metaData().index(index);
             logger.debug("[{}] creating index", index);
@@ -468,7 +492,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                     sendFailShard(shardRouting, failShardReason, e, state);
                 }
             }
-        }
+        });
     }
 
     private void updateIndices(ClusterChangedEvent event) {
@@ -476,35 +500,117 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             return;
         }
         final ClusterState state = event.state();
+        final List<AllocatedIndex<? extends Shard>> indicesToUpdate = new ArrayList<>();
         for (AllocatedIndex<? extends Shard> indexService : indicesService) {
             final Index index = indexService.index();
             final IndexMetaData currentIndexMetaData = indexService.getIndexSettings().getIndexMetaData();
             final IndexMetaData newIndexMetaData = state.metaData().index(index);
             assert newIndexMetaData != null : "index " + index + " should have been removed by deleteIndices";
             if (ClusterChangedEvent.indexMetaDataChanged(currentIndexMetaData, newIndexMetaData)) {
-                indexService.updateMetaData(newIndexMetaData);
-                try {
-                    if (indexService.updateMapping(newIndexMetaData) && sendRefreshMapping) {
-                        nodeMappingRefreshAction.nodeMappingRefresh(state.nodes().getMasterNode(),
-                            new NodeMappingRefreshAction.NodeMappingRefreshRequest(newIndexMetaData.getIndex().getName(),
-                                newIndexMetaData.getIndexUUID(), state.nodes().getLocalNodeId())
-                        );
-                    }
-                } catch (Exception e) {
-                    indicesService.removeIndex(indexService.index(), FAILURE, "removing index (mapping update failed)");
-
-                    // fail shards that would be created or updated by createOrUpdateShards
-                    RoutingNode localRoutingNode = state.getRoutingNodes().node(state.nodes().getLocalNodeId());
-                    if (localRoutingNode != null) {
-                        for (final ShardRouting shardRouting : localRoutingNode) {
-                            if (shardRouting.index().equals(index) && failedShardsCache.containsKey(shardRouting.shardId()) == false) {
-                                sendFailShard(shardRouting, "failed to update mapping for index", e, state);
-                            }
+                indicesToUpdate.add(indexService);
+            }
+        }
+        forEachIndex(indicesToUpdate, AllocatedIndex::index, "update", applyConcurrency, indexService -> {
+            final Index index = indexService.index();
+            final IndexMetaData newIndexMetaData = state.metaData().index(index);
+            indexService.updateMetaData(newIndexMetaData);
+            try {
+                if (indexService.updateMapping(newIndexMetaData) && sendRefreshMapping) {
+                    nodeMappingRefreshAction.nodeMappingRefresh(state.nodes().getMasterNode(),
+                        new NodeMappingRefreshAction.NodeMappingRefreshRequest(newIndexMetaData.getIndex().getName(),
+                            newIndexMetaData.getIndexUUID(), state.nodes().getLocalNodeId())
+                    );
+                }
+            } catch (Exception e) {
+                indicesService.removeIndex(indexService.index(), FAILURE, "removing index (mapping update failed)");
+
+                // fail shards that would be created or updated by createOrUpdateShards
+                RoutingNode localRoutingNode = state.getRoutingNodes().node(state.nodes().getLocalNodeId());
+                if (localRoutingNode != null) {
+                    for (final ShardRouting shardRouting : localRoutingNode) {
+                        if (shardRouting.index().equals(index) && failedShardsCache.containsKey(shardRouting.shardId()) == false) {
+                            sendFailShard(shardRouting, "failed to update mapping for index", e, state);
                         }
                     }
                 }
             }
+        });
+    }
+
+    /**
+     * Applies the given action to each index, fanning out to up to {@code concurrency} workers. All the work for a single index is done
+     * by a single worker so the changes to an index are still applied in order, and this method only returns once every index has been
+     * processed. Anything thrown by a worker, errors included, is rethrown on the applier thread. The time taken for each index is
+     * logged if it exceeds the slow task threshold.
+     */
+    private <T> void forEachIndex(Collection<T> items, Function<T, Index> indexFunction, String action, int concurrency,
+                                  Consumer<T> consumer) {
+        final Consumer<T> timedConsumer = item -> {
+            final long startTimeNS = System.nanoTime();
+            try {
+                consumer.accept(item);
+            } finally {
+                final TimeValue executionTime = TimeValue.timeValueMillis(TimeValue.nsecToMSec(System.nanoTime() - startTimeNS));
+                if (executionTime.getMillis() > slowIndexLoggingThreshold.getMillis()) {
+                    logger.warn("[{}] applying cluster state to {} index took [{}], which is over [{}]",
+                        indexFunction.apply(item), action, executionTime, slowIndexLoggingThreshold);
+                } else {
+                    logger.trace("[{}] applying cluster state to {} index took [{}]", indexFunction.apply(item), action, executionTime);
+                }
+            }
+        };
+        final int workers = Math.min(concurrency, items.size());
+        if (workers <= 1) {
+            items.forEach(timedConsumer);
+            return;
+        }
+        final Queue<T> queue = new ConcurrentLinkedQueue<>(items);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Runnable drain = () -> {
+            T item;
+            while ((item = queue.poll()) != null) {
+                try {
+                    timedConsumer.accept(item);
+                } catch (Throwable t) {
+                    // also catch errors, they must not get lost on a generic thread while the applier moves on to the next phase
+                    failure.accumulateAndGet(t, ExceptionsHelper::useOrSuppress);
+                }
+            }
+        };
+        final CountDownLatch latch = new CountDownLatch(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            try {
+                threadPool.generic().execute(() -> {
+                    try {
+                        drain.run();
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the applier thread drains whatever is left
+                latch.countDown();
+            }
+        }
+        drain.run();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                // the next steps rely on these indices being applied, we must not return before all workers are done
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        final Throwable t = failure.get();
+        if (t instanceof Error) {
+            throw (Error) t;
         }
+        ExceptionsHelper.reThrowIfNotNull(t);
     }
 
     private void createOrUpdateShards(final ClusterState state) {
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -98,12 +99,14 @@ public class IngestStats implements Writeable, ToXContentFragment {
 
         private final long ingestCount;
         private final long ingestTimeInMillis;
+        private final long ingestQueueTimeInMillis;
         private final long ingestCurrent;
         private final long ingestFailedCount;
 
-        public Stats(long ingestCount, long ingestTimeInMillis, long ingestCurrent, long ingestFailedCount) {
+        public Stats(long ingestCount, long ingestTimeInMillis, long ingestQueueTimeInMillis, long ingestCurrent, long ingestFailedCount) {
             this.ingestCount = ingestCount;
             this.ingestTimeInMillis = ingestTimeInMillis;
+            this.ingestQueueTimeInMillis = ingestQueueTimeInMillis;
             this.ingestCurrent = ingestCurrent;
             this.ingestFailedCount = ingestFailedCount;
         }
@@ -114,6 +117,11 @@ public class IngestStats implements Writeable, ToXContentFragment {
         public Stats(StreamInput in) throws IOException {
             ingestCount = in.readVLong();
             ingestTimeInMillis = in.readVLong();
+            if (in.getVersion().onOrAfter(Version.V_7_0_0_alpha1)) {
+                ingestQueueTimeInMillis = in.readVLong();
+            } else {
+                ingestQueueTimeInMillis = 0;
+            }
             ingestCurrent = in.readVLong();
             ingestFailedCount = in.readVLong();
         }
@@ -122,6 +130,9 @@ public class IngestStats implements Writeable, ToXContentFragment {
         public void writeTo(StreamOutput out) throws IOException {
             out.writeVLong(ingestCount);
             out.writeVLong(ingestTimeInMillis);
+            if (out.getVersion().onOrAfter(Version.V_7_0_0_alpha1)) {
+                out.writeVLong(ingestQueueTimeInMillis);
+            }
             out.writeVLong(ingestCurrent);
             out.writeVLong(ingestFailedCount);
         }
@@ -141,6 +152,14 @@ public class IngestStats implements Writeable, ToXContentFragment {
             return ingestTimeInMillis;
         }
 
+        /**
+         * @return The total time in millis that batches of ingest preprocessing operations spent waiting in the write thread pool queue,
+         * from being dispatched to the pool until they started running. Each batch adds its waiting time once.
+         */
+        public long getIngestQueueTimeInMillis() {
+            return ingestQueueTimeInMillis;
+        }
+
         /**
          * @return The total number of ingest preprocessing operations currently executing.
          */
@@ -159,6 +178,8 @@ public class IngestStats implements Writeable, ToXContentFragment {
         public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             builder.field("count", ingestCount);
             builder.humanReadableField("time_in_millis", "time", new TimeValue(ingestTimeInMillis, TimeUnit.MILLISECONDS));
+            builder.humanReadableField("queue_time_in_millis", "queue_time",
+                new TimeValue(ingestQueueTimeInMillis, TimeUnit.MILLISECONDS));
             builder.field("current", ingestCurrent);
             builder.field("failed", ingestFailedCount);
             return builder;
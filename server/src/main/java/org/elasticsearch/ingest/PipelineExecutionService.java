@@ -19,6 +19,7 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
@@ -27,35 +28,66 @@ import org.elasticsearch.cluster.ClusterStateApplier;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 public class PipelineExecutionService implements ClusterStateApplier {
 
+    /**
+     * The maximum number of batches the documents of a single bulk request are split into when running their pipelines. Batches are
+     * executed in parallel on the write thread pool, the documents within a batch are processed one after the other.
+     */
+    public static final Setting<Integer> BULK_CONCURRENCY_SETTING =
+        Setting.intSetting("ingest.bulk.concurrency", 1, 1, Property.NodeScope);
+
     private final PipelineStore store;
     private final ThreadPool threadPool;
+    private final int bulkConcurrency;
+    private final LongSupplier relativeTimeInNanosSupplier;
 
     private final StatsHolder totalStats = new StatsHolder();
     private volatile Map<String, StatsHolder> statsHolderPerPipeline = Collections.emptyMap();
 
-    public PipelineExecutionService(PipelineStore store, ThreadPool threadPool) {
+    public PipelineExecutionService(Settings settings, PipelineStore store, ThreadPool threadPool) {
+        this(settings, store, threadPool, System::nanoTime);
+    }
+
+    PipelineExecutionService(Settings settings, PipelineStore store, ThreadPool threadPool, LongSupplier relativeTimeInNanosSupplier) {
         this.store = store;
         this.threadPool = threadPool;
+        this.bulkConcurrency = BULK_CONCURRENCY_SETTING.get(settings);
+        this.relativeTimeInNanosSupplier = relativeTimeInNanosSupplier;
     }
 
+    /**
+     * Executes the pipelines of the given requests. Items that fail are reported to {@code itemFailureHandler} together with their
+     * slot in {@code actionRequests}. Failures are reported in slot order and from a single thread, once all pipelines have run and
+     * right before {@code completionHandler} is notified.
+     */
     public void executeBulkRequest(Iterable<DocWriteRequest> actionRequests,
-                                   BiConsumer<IndexRequest, Exception> itemFailureHandler,
+                                   BiConsumer<Integer, Exception> itemFailureHandler,
                                    Consumer<Exception> completionHandler) {
+        final long dispatchTimeInNanos = relativeTimeInNanosSupplier.getAsLong();
         threadPool.executor(ThreadPool.Names.WRITE).execute(new AbstractRunnable() {
 
             @Override
@@ -65,6 +97,10 @@ public class PipelineExecutionService implements ClusterStateApplier {
 
             @Override
             protected void doRun() throws Exception {
+                final long queueTimeInNanos = relativeTimeInNanosSupplier.getAsLong() - dispatchTimeInNanos;
+                List<IndexRequest> indexRequests = new ArrayList<>();
+                List<Integer> slots = new ArrayList<>();
+                int slot = 0;
                 for (DocWriteRequest actionRequest : actionRequests) {
                     IndexRequest indexRequest = null;
                     if (actionRequest instanceof IndexRequest) {
@@ -74,21 +110,114 @@ public class PipelineExecutionService implements ClusterStateApplier {
                         indexRequest = updateRequest.docAsUpsert() ? updateRequest.doc() : updateRequest.upsertRequest();
                     }
                     if (indexRequest != null && Strings.hasText(indexRequest.getPipeline())) {
-                        try {
-                            innerExecute(indexRequest, getPipeline(indexRequest.getPipeline()));
-                            //this shouldn't be needed here but we do it for consistency with index api
-                            // which requires it to prevent double execution
-                            indexRequest.setPipeline(null);
-                        } catch (Exception e) {
-                            itemFailureHandler.accept(indexRequest, e);
-                        }
+                        indexRequests.add(indexRequest);
+                        slots.add(slot);
                     }
+                    slot++;
                 }
-                completionHandler.accept(null);
+                executeInBatches(indexRequests, slots, queueTimeInNanos, itemFailureHandler, completionHandler);
             }
         });
     }
 
+    /**
+     * Splits the given requests into batches and runs them. The first batch runs on the current write thread, which waited for
+     * {@code queueTimeInNanos} in the queue of the write thread pool, the other batches are dispatched to the write thread pool.
+     */
+    private void executeInBatches(List<IndexRequest> indexRequests, List<Integer> slots, long queueTimeInNanos,
+                                  BiConsumer<Integer, Exception> itemFailureHandler, Consumer<Exception> completionHandler) {
+        final Exception[] itemFailures = new Exception[indexRequests.size()];
+        final int numBatches = Math.max(1, Math.min(bulkConcurrency, indexRequests.size()));
+        final int batchSize = (indexRequests.size() + numBatches - 1) / numBatches;
+        final CountDown countDown = new CountDown(numBatches);
+        final AtomicReference<Exception> batchFailure = new AtomicReference<>();
+        final Runnable onBatchDone = () -> {
+            if (countDown.countDown()) {
+                if (batchFailure.get() != null) {
+                    completionHandler.accept(batchFailure.get());
+                    return;
+                }
+                for (int i = 0; i < itemFailures.length; i++) {
+                    if (itemFailures[i] != null) {
+                        itemFailureHandler.accept(slots.get(i), itemFailures[i]);
+                    }
+                }
+                completionHandler.accept(null);
+            }
+        };
+        for (int batch = 1; batch < numBatches; batch++) {
+            final int from = batch * batchSize;
+            final int to = Math.min(from + batchSize, indexRequests.size());
+            final long batchDispatchTimeInNanos = relativeTimeInNanosSupplier.getAsLong();
+            threadPool.executor(ThreadPool.Names.WRITE).execute(new AbstractRunnable() {
+
+                @Override
+                public void onFailure(Exception e) {
+                    batchFailure.accumulateAndGet(e, ExceptionsHelper::useOrSuppress);
+                }
+
+                @Override
+                public void onRejection(Exception e) {
+                    // rather fall back to running the batch on the current thread than failing the whole bulk request
+                    executeBatch(indexRequests, from, to, relativeTimeInNanosSupplier.getAsLong() - batchDispatchTimeInNanos, itemFailures);
+                }
+
+                @Override
+                protected void doRun() {
+                    executeBatch(indexRequests, from, to, relativeTimeInNanosSupplier.getAsLong() - batchDispatchTimeInNanos, itemFailures);
+                }
+
+                @Override
+                public void onAfter() {
+                    onBatchDone.run();
+                }
+            });
+        }
+        try {
+            executeBatch(indexRequests, 0, Math.min(batchSize, indexRequests.size()), queueTimeInNanos, itemFailures);
+        } finally {
+            onBatchDone.run();
+        }
+    }
+
+    private void executeBatch(List<IndexRequest> indexRequests, int from, int to, long queueTimeInNanos, Exception[] itemFailures) {
+        recordQueueTime(indexRequests, from, to, queueTimeInNanos);
+        for (int i = from; i < to; i++) {
+            IndexRequest indexRequest = indexRequests.get(i);
+            try {
+                innerExecute(indexRequest, getPipeline(indexRequest.getPipeline()));
+                //this shouldn't be needed here but we do it for consistency with index api
+                // which requires it to prevent double execution
+                indexRequest.setPipeline(null);
+            } catch (Exception e) {
+                itemFailures[i] = e;
+            }
+        }
+    }
+
+    /**
+     * Records the time a batch waited between being dispatched to the write thread pool and starting to run. The time is recorded
+     * once for the batch and once for each of the pipelines of its documents, not once per document.
+     */
+    private void recordQueueTime(List<IndexRequest> indexRequests, int from, int to, long queueTimeInNanos) {
+        if (from >= to) {
+            return;
+        }
+        final long queueTimeInMillis = TimeUnit.NANOSECONDS.toMillis(queueTimeInNanos);
+        totalStats.queued(queueTimeInMillis);
+        final Map<String, StatsHolder> statsHolderPerPipeline = this.statsHolderPerPipeline;
+        final Set<String> pipelines = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            final String pipeline = indexRequests.get(i).getPipeline();
+            if (pipelines.add(pipeline)) {
+                final StatsHolder pipelineStats = statsHolderPerPipeline.get(pipeline);
+                if (pipelineStats != null) {
+                    pipelineStats.queued(queueTimeInMillis);
+                }
+            }
+        }
+    }
+
     public IngestStats stats() {
         Map<String, StatsHolder> statsHolderPerPipeline = this.statsHolderPerPipeline;
 
@@ -136,7 +265,7 @@ public class PipelineExecutionService implements ClusterStateApplier {
             return;
         }
 
-        long startTimeInNanos = System.nanoTime();
+        long startTimeInNanos = relativeTimeInNanosSupplier.getAsLong();
         // the pipeline specific stat holder may not exist and that is fine:
         // (e.g. the pipeline may have been removed while we're ingesting a document
         Optional<StatsHolder> pipelineStats = Optional.ofNullable(statsHolderPerPipeline.get(pipeline.getId()));
@@ -170,7 +299,7 @@ public class PipelineExecutionService implements ClusterStateApplier {
             pipelineStats.ifPresent(StatsHolder::ingestFailed);
             throw e;
         } finally {
-            long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
+            long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(relativeTimeInNanosSupplier.getAsLong() - startTimeInNanos);
             totalStats.postIngest(ingestTimeInMillis);
             pipelineStats.ifPresent(statsHolder -> statsHolder.postIngest(ingestTimeInMillis));
         }
@@ -187,9 +316,14 @@ public class PipelineExecutionService implements ClusterStateApplier {
     static class StatsHolder {
 
         private final MeanMetric ingestMetric = new MeanMetric();
+        private final CounterMetric ingestQueueTime = new CounterMetric();
         private final CounterMetric ingestCurrent = new CounterMetric();
         private final CounterMetric ingestFailed = new CounterMetric();
 
+        void queued(long queueTimeInMillis) {
+            ingestQueueTime.inc(queueTimeInMillis);
+        }
+
         void preIngest() {
             ingestCurrent.inc();
         }
@@ -204,7 +338,8 @@ public class PipelineExecutionService implements ClusterStateApplier {
         }
 
         IngestStats.Stats createStats() {
-            return new IngestStats.Stats(ingestMetric.count(), ingestMetric.sum(), ingestCurrent.count(), ingestFailed.count());
+            return new IngestStats.Stats(ingestMetric.count(), ingestMetric.sum(), ingestQueueTime.count(), ingestCurrent.count(),
+                ingestFailed.count());
         }
 
     }
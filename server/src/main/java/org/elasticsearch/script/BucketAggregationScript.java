@@ -0,0 +1,94 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.script;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * A script that computes a value for all buckets of a multi-bucket aggregation at once.
+ * See {@link org.elasticsearch.search.aggregations.pipeline.bucketscript.BucketScriptPipelineAggregator} and
+ * {@link org.elasticsearch.search.aggregations.pipeline.bucketselector.BucketSelectorPipelineAggregator}.
+ */
+public abstract class BucketAggregationScript {
+
+    /** The generic runtime parameters for the script. */
+    private final Map<String, Object> params;
+
+    public BucketAggregationScript(Map<String, Object> params) {
+        this.params = params;
+    }
+
+    /** Return the parameters for this script. */
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    /**
+     * Runs the script for the first {@code numBuckets} buckets. Each bucket sees the parameters of the script as they were
+     * passed to the factory, changes a script makes to them while running on one bucket are not visible to the next one.
+     *
+     * @param numBuckets the number of buckets to run the script on
+     * @param variables  the values of the variables, by name, with one value per bucket
+     * @param missing    for each variable, the buckets whose buckets path could not be resolved; their value is undefined
+     * @param results    receives the value the script returned for each bucket
+     */
+    public abstract void execute(int numBuckets, Map<String, double[]> variables, Map<String, BitSet> missing, Results results);
+
+    /**
+     * Receives the values a {@link BucketAggregationScript} returned, one call per bucket.
+     */
+    public interface Results {
+
+        /** The script returned a number for the bucket. */
+        void setNumber(int bucket, double value);
+
+        /** The script returned a boolean for the bucket. */
+        void setBoolean(int bucket, boolean value);
+
+        /** The script returned {@code null} for the bucket. */
+        void setNull(int bucket);
+
+        /** The script returned something other than a number, a boolean or {@code null} for the bucket. */
+        void setObject(int bucket, Object value);
+    }
+
+    /**
+     * Passes the value a script returned for a bucket to the method of {@link Results} that matches its type.
+     */
+    public static void setResult(Results results, int bucket, Object value) {
+        if (value == null) {
+            results.setNull(bucket);
+        } else if (value instanceof Number) {
+            results.setNumber(bucket, ((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            results.setBoolean(bucket, (Boolean) value);
+        } else {
+            results.setObject(bucket, value);
+        }
+    }
+
+    /** A factory to construct {@link BucketAggregationScript} instances. */
+    public interface Factory {
+        BucketAggregationScript newInstance(Map<String, Object> params);
+    }
+
+    /** The context used to compile {@link BucketAggregationScript} factories. */
+    public static final ScriptContext<Factory> CONTEXT = new ScriptContext<>("bucket_aggs", Factory.class);
+}
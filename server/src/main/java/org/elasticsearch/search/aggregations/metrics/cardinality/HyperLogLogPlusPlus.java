@@ -227,12 +227,28 @@ public final class HyperLogLogPlusPlus implements Releasable {
             }
             final long thisStart = thisBucket << p;
             final long otherStart = otherBucket << p;
-            for (int i = 0; i < m; ++i) {
-                runLens.set(thisStart + i, (byte) Math.max(runLens.get(thisStart + i), other.runLens.get(otherStart + i)));
+            final BytesRef otherRunLens = new BytesRef();
+            for (int i = 0; i < m; i += otherRunLens.length) {
+                final boolean copied = other.runLens.get(otherStart + i, registersInPage(otherStart + i, m - i), otherRunLens);
+                assert copied == false;
+                for (int j = 0; j < otherRunLens.length; ++j) {
+                    final byte otherRunLen = otherRunLens.bytes[otherRunLens.offset + j];
+                    if (otherRunLen > runLens.get(thisStart + i + j)) {
+                        runLens.set(thisStart + i + j, otherRunLen);
+                    }
+                }
             }
         }
     }
 
+    /**
+     * Returns how many of the {@code len} registers that start at {@code index} are on the same page of {@link #runLens}, so that
+     * they can be read without copying them.
+     */
+    private static int registersInPage(long index, int len) {
+        return (int) Math.min(len, BigArrays.BYTE_PAGE_SIZE - (index % BigArrays.BYTE_PAGE_SIZE));
+    }
+
     public void collect(long bucket, long hash) {
         ensureCapacity(bucket + 1);
         if (algorithm.get(bucket) == LINEAR_COUNTING) {
@@ -566,8 +582,13 @@ public final class HyperLogLogPlusPlus implements Releasable {
             }
         } else {
             out.writeBoolean(HYPERLOGLOG);
-            for (long i = bucket << p, end = i + m; i < end; ++i) {
-                out.writeByte(runLens.get(i));
+            // same wire format as writing one byte per register, but copied in bulk
+            final long start = bucket << p;
+            final BytesRef registers = new BytesRef();
+            for (int i = 0; i < m; i += registers.length) {
+                final boolean copied = runLens.get(start + i, registersInPage(start + i, m - i), registers);
+                assert copied == false;
+                out.writeBytes(registers.bytes, registers.offset, registers.length);
             }
         }
     }
@@ -585,8 +606,10 @@ public final class HyperLogLogPlusPlus implements Releasable {
             }
         } else {
             counts.algorithm.set(0);
-            for (int i = 0; i < counts.m; ++i) {
-                counts.runLens.set(i, in.readByte());
+            final byte[] registers = new byte[Math.min(counts.m, BigArrays.BYTE_PAGE_SIZE)];
+            for (int i = 0; i < counts.m; i += registers.length) {
+                in.readBytes(registers, 0, registers.length);
+                counts.runLens.set(i, registers, 0, registers.length);
             }
         }
         return counts;
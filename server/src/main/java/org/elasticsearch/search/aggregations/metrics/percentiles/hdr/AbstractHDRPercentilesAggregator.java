@@ -97,9 +97,20 @@ public abstract class AbstractHDRPercentilesAggregator extends NumericMetricsAgg
 
                 if (values.advanceExact(doc)) {
                     final int valueCount = values.docValueCount();
-                    for (int i = 0; i < valueCount; i++) {
-                        state.recordValue(values.nextValue());
+                    // values are sorted, so duplicates are adjacent and can be recorded at once with their count
+                    double value = values.nextValue();
+                    int count = 1;
+                    for (int i = 1; i < valueCount; i++) {
+                        final double next = values.nextValue();
+                        if (next == value) {
+                            count++;
+                        } else {
+                            state.recordValueWithCount(value, count);
+                            value = next;
+                            count = 1;
+                        }
                     }
+                    state.recordValueWithCount(value, count);
                 }
             }
         };
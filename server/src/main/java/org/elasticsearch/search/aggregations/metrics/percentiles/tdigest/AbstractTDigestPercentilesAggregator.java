@@ -89,9 +89,22 @@ public abstract class AbstractTDigestPercentilesAggregator extends NumericMetric
 
                 if (values.advanceExact(doc)) {
                     final int valueCount = values.docValueCount();
-                    for (int i = 0; i < valueCount; i++) {
-                        state.add(values.nextValue());
+                    // values are sorted, so duplicates are adjacent and can be recorded at once with their count
+                    // note that a weighted add may build other centroids than adding the values one by one, so
+                    // percentiles can differ slightly (within the usual t-digest error) from recording every value
+                    double value = values.nextValue();
+                    int count = 1;
+                    for (int i = 1; i < valueCount; i++) {
+                        final double next = values.nextValue();
+                        if (next == value) {
+                            count++;
+                        } else {
+                            state.add(value, count);
+                            value = next;
+                            count = 1;
+                        }
                     }
+                    state.add(value, count);
                 }
             }
         };
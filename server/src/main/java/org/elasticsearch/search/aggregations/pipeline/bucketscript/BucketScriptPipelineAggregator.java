@@ -21,7 +21,7 @@ package org.elasticsearch.search.aggregations.pipeline.bucketscript;
 
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
-import org.elasticsearch.script.ExecutableScript;
+import org.elasticsearch.script.BucketAggregationScript;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AggregationExecutionException;
@@ -32,9 +32,11 @@ import org.elasticsearch.search.aggregations.InternalMultiBucketAggregation;
 import org.elasticsearch.search.aggregations.pipeline.BucketHelpers.GapPolicy;
 import org.elasticsearch.search.aggregations.pipeline.InternalSimpleValue;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.support.AggregationPath;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -89,47 +91,93 @@ public class BucketScriptPipelineAggregator extends PipelineAggregator {
                 (InternalMultiBucketAggregation<InternalMultiBucketAggregation, InternalMultiBucketAggregation.InternalBucket>) aggregation;
         List<? extends InternalMultiBucketAggregation.InternalBucket> buckets = originalAgg.getBuckets();
 
-        ExecutableScript.Factory factory = reduceContext.scriptService().compile(script, ExecutableScript.AGGS_CONTEXT);
-        List<InternalMultiBucketAggregation.InternalBucket> newBuckets = new ArrayList<>();
-        for (InternalMultiBucketAggregation.InternalBucket bucket : buckets) {
-            Map<String, Object> vars = new HashMap<>();
-            if (script.getParams() != null) {
-                vars.putAll(script.getParams());
-            }
+        // resolve the values of all buckets first so that the script runs once for all of them
+        Map<String, List<String>> bucketsPaths = new HashMap<>();
+        Map<String, double[]> variables = new HashMap<>();
+        Map<String, BitSet> missing = new HashMap<>();
+        for (Map.Entry<String, String> entry : bucketsPathsMap.entrySet()) {
+            bucketsPaths.put(entry.getKey(), AggregationPath.parse(entry.getValue()).getPathElementsAsStringList());
+            variables.put(entry.getKey(), new double[buckets.size()]);
+            missing.put(entry.getKey(), new BitSet());
+        }
+        // the positions of the buckets the script runs on, the others are skipped
+        int[] scriptedBuckets = new int[buckets.size()];
+        int numScriptedBuckets = 0;
+        for (int i = 0; i < buckets.size(); i++) {
             boolean skipBucket = false;
-            for (Map.Entry<String, String> entry : bucketsPathsMap.entrySet()) {
-                String varName = entry.getKey();
-                String bucketsPath = entry.getValue();
-                Double value = resolveBucketValue(originalAgg, bucket, bucketsPath, gapPolicy);
+            for (Map.Entry<String, List<String>> entry : bucketsPaths.entrySet()) {
+                Double value = resolveBucketValue(originalAgg, buckets.get(i), entry.getValue(), gapPolicy);
                 if (GapPolicy.SKIP == gapPolicy && (value == null || Double.isNaN(value))) {
                     skipBucket = true;
                     break;
                 }
-                vars.put(varName, value);
+                if (value == null) {
+                    missing.get(entry.getKey()).set(numScriptedBuckets);
+                } else {
+                    variables.get(entry.getKey())[numScriptedBuckets] = value;
+                }
             }
-            if (skipBucket) {
-                newBuckets.add(bucket);
+            if (skipBucket == false) {
+                scriptedBuckets[numScriptedBuckets++] = i;
             } else {
-                ExecutableScript executableScript = factory.newInstance(vars);
-                Object returned = executableScript.run();
+                // a later bucket reuses this position
+                for (BitSet missingValues : missing.values()) {
+                    missingValues.clear(numScriptedBuckets);
+                }
+            }
+        }
+
+        BucketAggregationScript.Factory factory = reduceContext.scriptService().compile(script, BucketAggregationScript.CONTEXT);
+        double[] results = new double[numScriptedBuckets];
+        // the buckets the script returned null for, they are left unchanged
+        BitSet nullResults = new BitSet();
+        factory.newInstance(script.getParams()).execute(numScriptedBuckets, variables, missing, new BucketAggregationScript.Results() {
+            @Override
+            public void setNumber(int bucket, double value) {
+                results[bucket] = value;
+            }
+
+            @Override
+            public void setBoolean(int bucket, boolean value) {
+                throw mustReturnNumber();
+            }
+
+            @Override
+            public void setNull(int bucket) {
+                nullResults.set(bucket);
+            }
+
+            @Override
+            public void setObject(int bucket, Object value) {
+                throw mustReturnNumber();
+            }
+        });
+
+        List<InternalMultiBucketAggregation.InternalBucket> newBuckets = new ArrayList<>(buckets.size());
+        int scriptedBucket = 0;
+        for (int i = 0; i < buckets.size(); i++) {
+            InternalMultiBucketAggregation.InternalBucket bucket = buckets.get(i);
+            if (scriptedBucket < numScriptedBuckets && scriptedBuckets[scriptedBucket] == i) {
+                int result = scriptedBucket++;
                 // no need to check for self references since only numbers are valid
-                if (returned == null) {
+                if (nullResults.get(result)) {
                     newBuckets.add(bucket);
                 } else {
-                    if ((returned instanceof Number) == false) {
-                        throw new AggregationExecutionException("series_arithmetic script for reducer [" + name()
-                                + "] must return a Number");
-                    }
                     final List<InternalAggregation> aggs = StreamSupport.stream(bucket.getAggregations().spliterator(), false).map(
                             (p) -> (InternalAggregation) p).collect(Collectors.toList());
-                    aggs.add(new InternalSimpleValue(name(), ((Number) returned).doubleValue(), formatter,
-                            new ArrayList<>(), metaData()));
+                    aggs.add(new InternalSimpleValue(name(), results[result], formatter, new ArrayList<>(), metaData()));
                     InternalMultiBucketAggregation.InternalBucket newBucket = originalAgg.createBucket(new InternalAggregations(aggs),
                             bucket);
                     newBuckets.add(newBucket);
                 }
+            } else {
+                newBuckets.add(bucket);
             }
         }
         return originalAgg.create(newBuckets);
     }
+
+    private AggregationExecutionException mustReturnNumber() {
+        return new AggregationExecutionException("series_arithmetic script for reducer [" + name() + "] must return a Number");
+    }
 }
@@ -22,16 +22,19 @@ package org.elasticsearch.search.aggregations.pipeline.bucketselector;
 
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
-import org.elasticsearch.script.ExecutableScript;
+import org.elasticsearch.script.BucketAggregationScript;
 import org.elasticsearch.script.Script;
+import org.elasticsearch.search.aggregations.AggregationExecutionException;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
 import org.elasticsearch.search.aggregations.InternalMultiBucketAggregation;
 import org.elasticsearch.search.aggregations.pipeline.BucketHelpers.GapPolicy;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.support.AggregationPath;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -82,34 +85,66 @@ public class BucketSelectorPipelineAggregator extends PipelineAggregator {
                 (InternalMultiBucketAggregation<InternalMultiBucketAggregation, InternalMultiBucketAggregation.InternalBucket>) aggregation;
         List<? extends InternalMultiBucketAggregation.InternalBucket> buckets = originalAgg.getBuckets();
 
-        ExecutableScript.Factory factory = reduceContext.scriptService().compile(script, ExecutableScript.AGGS_CONTEXT);
-        List<InternalMultiBucketAggregation.InternalBucket> newBuckets = new ArrayList<>();
-        for (InternalMultiBucketAggregation.InternalBucket bucket : buckets) {
-            Map<String, Object> vars = new HashMap<>();
-            if (script.getParams() != null) {
-                vars.putAll(script.getParams());
+        // resolve the values of all buckets first so that the script runs once for all of them
+        Map<String, double[]> variables = new HashMap<>();
+        Map<String, BitSet> missing = new HashMap<>();
+        for (Map.Entry<String, String> entry : bucketsPathsMap.entrySet()) {
+            List<String> bucketsPath = AggregationPath.parse(entry.getValue()).getPathElementsAsStringList();
+            double[] values = new double[buckets.size()];
+            BitSet missingValues = new BitSet();
+            for (int i = 0; i < buckets.size(); i++) {
+                Double value = resolveBucketValue(originalAgg, buckets.get(i), bucketsPath, gapPolicy);
+                if (value == null) {
+                    missingValues.set(i);
+                } else {
+                    values[i] = value;
+                }
             }
-            for (Map.Entry<String, String> entry : bucketsPathsMap.entrySet()) {
-                String varName = entry.getKey();
-                String bucketsPath = entry.getValue();
-                Double value = resolveBucketValue(originalAgg, bucket, bucketsPath, gapPolicy);
-                vars.put(varName, value);
+            variables.put(entry.getKey(), values);
+            missing.put(entry.getKey(), missingValues);
+        }
+
+        BucketAggregationScript.Factory factory = reduceContext.scriptService().compile(script, BucketAggregationScript.CONTEXT);
+        BitSet keptBuckets = new BitSet(buckets.size());
+        // expressions cannot return booleans, they return 1 for true
+        boolean isExpression = "expression".equals(script.getLang());
+        factory.newInstance(script.getParams()).execute(buckets.size(), variables, missing, new BucketAggregationScript.Results() {
+            @Override
+            public void setNumber(int bucket, double value) {
+                if (isExpression == false) {
+                    throw mustReturnBoolean();
+                }
+                if (value == 1.0) {
+                    keptBuckets.set(bucket);
+                }
             }
-            // TODO: can we use one instance of the script for all buckets? it should be stateless?
-            ExecutableScript executableScript = factory.newInstance(vars);
-            Object scriptReturnValue = executableScript.run();
-            final boolean keepBucket;
-            // TODO: WTF!!!!!
-            if ("expression".equals(script.getLang())) {
-                double scriptDoubleValue = (double) scriptReturnValue;
-                keepBucket = scriptDoubleValue == 1.0;
-            } else {
-                keepBucket = (boolean) scriptReturnValue;
+
+            @Override
+            public void setBoolean(int bucket, boolean value) {
+                if (value) {
+                    keptBuckets.set(bucket);
+                }
             }
-            if (keepBucket) {
-                newBuckets.add(bucket);
+
+            @Override
+            public void setNull(int bucket) {
+                throw mustReturnBoolean();
             }
+
+            @Override
+            public void setObject(int bucket, Object value) {
+                throw mustReturnBoolean();
+            }
+        });
+
+        List<InternalMultiBucketAggregation.InternalBucket> newBuckets = new ArrayList<>();
+        for (int i = keptBuckets.nextSetBit(0); i >= 0; i = keptBuckets.nextSetBit(i + 1)) {
+            newBuckets.add(buckets.get(i));
         }
         return originalAgg.create(newBuckets);
     }
+
+    private AggregationExecutionException mustReturnBoolean() {
+        return new AggregationExecutionException("bucket_selector script for reducer [" + name() + "] must return a boolean");
+    }
 }
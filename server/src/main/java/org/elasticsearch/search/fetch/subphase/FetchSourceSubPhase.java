@@ -21,8 +21,11 @@ package org.elasticsearch.search.fetch.subphase;
 
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.fetch.FetchSubPhase;
 import org.elasticsearch.search.internal.SearchContext;
@@ -51,6 +54,13 @@ public final class FetchSourceSubPhase implements FetchSubPhase {
                 throw new IllegalArgumentException("unable to fetch fields from _source field: _source is disabled in the mappings " +
                         "for index [" + context.indexShard().shardId().getIndexName() + "]");
             }
+            if (source.source() == null) {
+                // nothing parsed the source into a map yet, stream it through the filter rather than parsing it into a map
+                Tuple<XContentType, BytesReference> filtered = XContentHelper.filter(source.internalSourceRef(),
+                    source.sourceContentType(), fetchSourceContext.getStreamingFilter());
+                hitContext.hit().sourceRef(filtered.v2());
+                return;
+            }
         }
 
         Object value = source.filter(fetchSourceContext);
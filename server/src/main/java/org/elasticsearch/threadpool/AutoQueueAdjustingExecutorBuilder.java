@@ -19,6 +19,7 @@
 
 package org.elasticsearch.threadpool;
 
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.SizeValue;
@@ -28,8 +29,10 @@ import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.node.Node;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 
@@ -45,6 +48,7 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
     private final Setting<Integer> maxQueueSizeSetting;
     private final Setting<TimeValue> targetedResponseTimeSetting;
     private final Setting<Integer> frameSizeSetting;
+    private final Setting<String> fairQueueKeyHeaderSetting;
 
     AutoQueueAdjustingExecutorBuilder(final Settings settings, final String name, final int size,
                                       final int initialQueueSize, final int minQueueSize,
@@ -81,12 +85,13 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
                 (s) -> Setting.parseInt(s, tempMinQueueSizeSetting.get(settings), Integer.MAX_VALUE, maxSizeKey),
                 Setting.Property.NodeScope);
         this.frameSizeSetting = Setting.intSetting(frameSizeKey, frameSize, 100, Setting.Property.NodeScope);
+        this.fairQueueKeyHeaderSetting = Setting.simpleString(settingsKey(prefix, "fair_queue_key_header"), Setting.Property.NodeScope);
     }
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
         return Arrays.asList(sizeSetting, queueSizeSetting, minQueueSizeSetting,
-                maxQueueSizeSetting, frameSizeSetting, targetedResponseTimeSetting);
+                maxQueueSizeSetting, frameSizeSetting, targetedResponseTimeSetting, fairQueueKeyHeaderSetting);
     }
 
     @Override
@@ -98,7 +103,17 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
         final int maxQueueSize = maxQueueSizeSetting.get(settings);
         final int frameSize = frameSizeSetting.get(settings);
         final TimeValue targetedResponseTime = targetedResponseTimeSetting.get(settings);
-        return new AutoExecutorSettings(nodeName, size, initialQueueSize, minQueueSize, maxQueueSize, frameSize, targetedResponseTime);
+        final String fairQueueKeyHeader = fairQueueKeyHeaderSetting.get(settings);
+        return new AutoExecutorSettings(nodeName, size, initialQueueSize, minQueueSize, maxQueueSize, frameSize, targetedResponseTime,
+                fairQueueKeyHeader);
+    }
+
+    @Override
+    Set<String> getRequestHeaders(final AutoExecutorSettings settings) {
+        if (Strings.isNullOrEmpty(settings.fairQueueKeyHeader)) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(settings.fairQueueKeyHeader);
     }
 
     @Override
@@ -120,6 +135,7 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
                         maxQueueSize,
                         frameSize,
                         targetedResponseTime,
+                        settings.fairQueueKeyHeader,
                         threadFactory,
                         threadContext);
         // TODO: in a subsequent change we hope to extend ThreadPool.Info to be more specific for the thread pool type
@@ -147,10 +163,11 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
         private final int maxQueueSize;
         private final int frameSize;
         private final TimeValue targetedResponseTime;
+        private final String fairQueueKeyHeader;
 
         AutoExecutorSettings(final String nodeName, final int size, final int initialQueueSize,
                              final int minQueueSize, final int maxQueueSize, final int frameSize,
-                             final TimeValue targetedResponseTime) {
+                             final TimeValue targetedResponseTime, final String fairQueueKeyHeader) {
             super(nodeName);
             this.size = size;
             this.initialQueueSize = initialQueueSize;
@@ -158,6 +175,7 @@ public final class AutoQueueAdjustingExecutorBuilder extends ExecutorBuilder<Aut
             this.maxQueueSize = maxQueueSize;
             this.frameSize = frameSize;
             this.targetedResponseTime = targetedResponseTime;
+            this.fairQueueKeyHeader = fairQueueKeyHeader;
         }
 
     }
@@ -24,7 +24,9 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Base class for executor builders.
@@ -70,6 +72,17 @@ public abstract class ExecutorBuilder<U extends ExecutorBuilder.ExecutorSettings
      */
     abstract U getSettings(Settings settings);
 
+    /**
+     * The request headers the executor built from the specified executor settings reads from the thread context. These headers are
+     * copied from REST requests into the thread context.
+     *
+     * @param settings the executor settings
+     * @return the request headers read by the executor
+     */
+    Set<String> getRequestHeaders(U settings) {
+        return Collections.emptySet();
+    }
+
     /**
      * Builds the executor with the specified executor settings.
      *
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.threadpool;
 
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.SizeValue;
@@ -27,8 +28,10 @@ import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.node.Node;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 
@@ -39,6 +42,7 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
 
     private final Setting<Integer> sizeSetting;
     private final Setting<Integer> queueSizeSetting;
+    private final Setting<String> fairQueueKeyHeaderSetting;
 
     /**
      * Construct a fixed executor builder; the settings will have the key prefix "thread_pool." followed by the executor name.
@@ -72,11 +76,12 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
                         Setting.Property.NodeScope);
         final String queueSizeKey = settingsKey(prefix, "queue_size");
         this.queueSizeSetting = Setting.intSetting(queueSizeKey, queueSize, Setting.Property.NodeScope);
+        this.fairQueueKeyHeaderSetting = Setting.simpleString(settingsKey(prefix, "fair_queue_key_header"), Setting.Property.NodeScope);
     }
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
-        return Arrays.asList(sizeSetting, queueSizeSetting);
+        return Arrays.asList(sizeSetting, queueSizeSetting, fairQueueKeyHeaderSetting);
     }
 
     @Override
@@ -84,7 +89,16 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         final String nodeName = Node.NODE_NAME_SETTING.get(settings);
         final int size = sizeSetting.get(settings);
         final int queueSize = queueSizeSetting.get(settings);
-        return new FixedExecutorSettings(nodeName, size, queueSize);
+        final String fairQueueKeyHeader = fairQueueKeyHeaderSetting.get(settings);
+        return new FixedExecutorSettings(nodeName, size, queueSize, fairQueueKeyHeader);
+    }
+
+    @Override
+    Set<String> getRequestHeaders(final FixedExecutorSettings settings) {
+        if (Strings.isNullOrEmpty(settings.fairQueueKeyHeader)) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(settings.fairQueueKeyHeader);
     }
 
     @Override
@@ -93,7 +107,8 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         int queueSize = settings.queueSize;
         final ThreadFactory threadFactory = EsExecutors.daemonThreadFactory(EsExecutors.threadName(settings.nodeName, name()));
         final ExecutorService executor =
-                EsExecutors.newFixed(settings.nodeName + "/" + name(), size, queueSize, threadFactory, threadContext);
+                EsExecutors.newFixed(settings.nodeName + "/" + name(), size, queueSize, settings.fairQueueKeyHeader, threadFactory,
+                    threadContext);
         final ThreadPool.Info info =
             new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.FIXED, size, size, null, queueSize < 0 ? null : new SizeValue(queueSize));
         return new ThreadPool.ExecutorHolder(executor, info);
@@ -113,11 +128,13 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
 
         private final int size;
         private final int queueSize;
+        private final String fairQueueKeyHeader;
 
-        FixedExecutorSettings(final String nodeName, final int size, final int queueSize) {
+        FixedExecutorSettings(final String nodeName, final int size, final int queueSize, final String fairQueueKeyHeader) {
             super(nodeName);
             this.size = size;
             this.queueSize = queueSize;
+            this.fairQueueKeyHeader = fairQueueKeyHeader;
         }
 
     }
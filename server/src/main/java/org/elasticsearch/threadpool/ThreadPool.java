@@ -46,8 +46,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
@@ -150,12 +152,22 @@ public class ThreadPool extends AbstractComponent implements Scheduler, Closeabl
 
     private final Map<String, ExecutorBuilder> builders;
 
+    private final Set<String> requestHeaders;
+
     private final ScheduledThreadPoolExecutor scheduler;
 
     public Collection<ExecutorBuilder> builders() {
         return Collections.unmodifiableCollection(builders.values());
     }
 
+    /**
+     * The request headers that the executors read from the thread context, for example to key their queues. These headers must be
+     * copied from REST requests into the thread context.
+     */
+    public Set<String> requestHeaders() {
+        return requestHeaders;
+    }
+
     public static Setting<TimeValue> ESTIMATED_TIME_INTERVAL_SETTING =
         Setting.timeSetting("thread_pool.estimated_time_interval", TimeValue.timeValueMillis(200), Setting.Property.NodeScope);
 
@@ -197,8 +209,10 @@ public class ThreadPool extends AbstractComponent implements Scheduler, Closeabl
         threadContext = new ThreadContext(settings);
 
         final Map<String, ExecutorHolder> executors = new HashMap<>();
+        final Set<String> requestHeaders = new HashSet<>();
         for (@SuppressWarnings("unchecked") final Map.Entry<String, ExecutorBuilder> entry : builders.entrySet()) {
             final ExecutorBuilder.ExecutorSettings executorSettings = entry.getValue().getSettings(settings);
+            requestHeaders.addAll(entry.getValue().getRequestHeaders(executorSettings));
             final ExecutorHolder executorHolder = entry.getValue().build(executorSettings, threadContext);
             if (executors.containsKey(executorHolder.info.getName())) {
                 throw new IllegalStateException("duplicate executors with name [" + executorHolder.info.getName() + "] registered");
@@ -209,6 +223,7 @@ public class ThreadPool extends AbstractComponent implements Scheduler, Closeabl
 
         executors.put(Names.SAME, new ExecutorHolder(DIRECT_EXECUTOR, new Info(Names.SAME, ThreadPoolType.DIRECT)));
         this.executors = unmodifiableMap(executors);
+        this.requestHeaders = Collections.unmodifiableSet(requestHeaders);
 
         final List<Info> infos =
                 executors
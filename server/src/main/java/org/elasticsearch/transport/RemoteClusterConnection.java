@@ -142,6 +142,13 @@ final class RemoteClusterConnection extends AbstractComponent implements Transpo
         this.skipUnavailable = skipUnavailable;
     }
 
+    /**
+     * Returns whether this cluster is skipped if it is unavailable when searching across clusters
+     */
+    boolean isSkipUnavailable() {
+        return skipUnavailable;
+    }
+
     @Override
     public void onNodeDisconnected(DiscoveryNode node) {
         boolean remove = connectedNodes.remove(node);
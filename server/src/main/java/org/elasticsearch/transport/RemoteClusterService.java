@@ -198,6 +198,18 @@ public final class RemoteClusterService extends RemoteClusterAware implements Cl
         return originalIndicesMap;
     }
 
+    /**
+     * Returns whether the cluster identified by the provided alias is configured to be skipped when unavailable
+     * @throws IllegalArgumentException if the remote cluster is unknown
+     */
+    public boolean isSkipUnavailable(String clusterAlias) {
+        RemoteClusterConnection connection = remoteClusters.get(clusterAlias);
+        if (connection == null) {
+            throw new IllegalArgumentException("no such remote cluster: " + clusterAlias);
+        }
+        return connection.isSkipUnavailable();
+    }
+
     /**
      * Returns <code>true</code> iff the given cluster is configured as a remote cluster. Otherwise <code>false</code>
      */
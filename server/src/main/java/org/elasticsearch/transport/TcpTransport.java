@@ -21,6 +21,7 @@ package org.elasticsearch.transport;
 import com.carrotsearch.hppc.IntHashSet;
 import com.carrotsearch.hppc.IntSet;
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.Version;
@@ -41,6 +42,7 @@ import org.elasticsearch.common.component.Lifecycle;
 import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.compress.NotCompressedException;
+import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
@@ -96,6 +98,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -104,6 +107,7 @@ import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -149,6 +153,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         intSetting("transport.connections_per_node.ping", 1, 1, Setting.Property.NodeScope);
     public static final Setting<TimeValue> TCP_CONNECT_TIMEOUT =
         timeSetting("transport.tcp.connect_timeout", NetworkService.TCP_CONNECT_TIMEOUT, Setting.Property.NodeScope);
+    public static final Setting<Boolean> DESERIALIZE_REQUESTS_ON_EXECUTOR =
+        boolSetting("transport.tcp.deserialize_requests_on_executor", false, Setting.Property.NodeScope);
     public static final Setting<Boolean> TCP_NO_DELAY =
         boolSetting("transport.tcp_no_delay", NetworkService.TCP_NO_DELAY, Setting.Property.NodeScope);
     public static final Setting<Boolean> TCP_KEEP_ALIVE =
@@ -213,6 +219,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     // connections while no connect operations is going on... (this might help with 100% CPU when stopping the transport?)
     private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
     protected final boolean compress;
+    private final boolean deserializeRequestsOnExecutor;
     private volatile BoundTransportAddress boundAddress;
     private final String transportName;
     protected final ConnectionProfile defaultConnectionProfile;
@@ -237,6 +244,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         this.pingSchedule = PING_SCHEDULE.get(settings);
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.compress = Transport.TRANSPORT_TCP_COMPRESS.get(settings);
+        this.deserializeRequestsOnExecutor = DESERIALIZE_REQUESTS_ON_EXECUTOR.get(settings);
         this.networkService = networkService;
         this.transportName = transportName;
         defaultConnectionProfile = buildDefaultConnectionProfile(settings);
@@ -1248,6 +1256,16 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
      *                                  This is dependent on the available memory.
      */
     public int consumeNetworkReads(TcpChannel channel, BytesReference bytesReference) throws IOException {
+        return consumeNetworkReads(channel, bytesReference, null);
+    }
+
+    /**
+     * Consumes bytes that are available from network reads, see {@link #consumeNetworkReads(TcpChannel, BytesReference)}.
+     *
+     * @param retainer retains the bytes past the end of this call, see {@link #messageReceived(BytesReference, TcpChannel, Supplier)}
+     */
+    public int consumeNetworkReads(TcpChannel channel, BytesReference bytesReference, @Nullable Supplier<Releasable> retainer)
+        throws IOException {
         BytesReference message = decodeFrame(bytesReference);
 
         if (message == null) {
@@ -1257,7 +1275,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             return BYTES_NEEDED_FOR_MESSAGE_SIZE;
         } else {
             try {
-                messageReceived(message, channel);
+                messageReceived(message, channel, retainer);
             } catch (Exception e) {
                 onException(channel, e);
             }
@@ -1392,6 +1410,21 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
      * This method handles the message receive part for both request and responses
      */
     public final void messageReceived(BytesReference reference, TcpChannel channel) throws IOException {
+        messageReceived(reference, channel, null);
+    }
+
+    /**
+     * This method handles the message receive part for both request and responses
+     *
+     * @param retainer if not {@code null}, retains the message bytes past the end of this call and returns the {@link Releasable}
+     *                 that releases them again. If {@link #DESERIALIZE_REQUESTS_ON_EXECUTOR} is set, requests are then decompressed and
+     *                 deserialized straight from these bytes on the executor of their handler. If {@code null}, the bytes are only
+     *                 valid until this call returns and the rest of a request is copied if it is handed to another executor.
+     */
+    public final void messageReceived(BytesReference reference, TcpChannel channel, @Nullable Supplier<Releasable> retainer)
+        throws IOException {
+        final SetOnce<Releasable> retained = new SetOnce<>();
+        final Supplier<Releasable> messageRetainer = retainer;
         String profileName = channel.getProfile();
         InetSocketAddress remoteAddress = channel.getRemoteAddress();
         int messageLengthBytes = reference.length();
@@ -1429,7 +1462,11 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             streamIn.setVersion(version);
             threadPool.getThreadContext().readHeaders(streamIn);
             if (TransportStatus.isRequest(status)) {
-                handleRequest(channel, profileName, streamIn, requestId, messageLengthBytes, version, remoteAddress, status);
+                handleRequest(channel, profileName, streamIn, requestId, messageLengthBytes, version, remoteAddress, status,
+                    messageRetainer == null ? null : () -> {
+                        retained.set(messageRetainer.get());
+                        return retained.get();
+                    });
             } else {
                 final TransportResponseHandler<?> handler;
                 if (isHandshake) {
@@ -1460,10 +1497,13 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             }
             success = true;
         } finally {
-            if (success) {
-                IOUtils.close(streamIn);
-            } else {
-                IOUtils.closeWhileHandlingException(streamIn);
+            // if the bytes were retained, the handler of the request owns the stream and closes it once it has read the request
+            if (retained.get() == null) {
+                if (success) {
+                    IOUtils.close(streamIn);
+                } else {
+                    IOUtils.closeWhileHandlingException(streamIn);
+                }
             }
         }
     }
@@ -1532,9 +1572,15 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         });
     }
 
+    /**
+     * Handles a request, reading it from the given stream.
+     *
+     * @param retainer if not {@code null}, retains the message bytes that back the stream so that the rest of the request can be read
+     *                 on the executor of its handler. Whoever calls it owns the stream from then on.
+     */
     protected String handleRequest(TcpChannel channel, String profileName, final StreamInput stream, long requestId,
-                                   int messageLengthBytes, Version version, InetSocketAddress remoteAddress, byte status)
-        throws IOException {
+                                   int messageLengthBytes, Version version, InetSocketAddress remoteAddress, byte status,
+                                   @Nullable Supplier<Releasable> retainer) throws IOException {
         final String action = stream.readString();
         transportService.onRequestReceived(requestId, action);
         TransportChannel transportChannel = null;
@@ -1555,11 +1601,25 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                 }
                 transportChannel = new TcpTransportChannel(this, channel, transportName, action, requestId, version, profileName,
                     messageLengthBytes);
-                final TransportRequest request = reg.newRequest(stream);
-                request.remoteAddress(new TransportAddress(remoteAddress));
-                // in case we throw an exception, i.e. when the limit is hit, we don't want to verify
-                validateRequest(stream, requestId, action);
-                threadPool.executor(reg.getExecutor()).execute(new RequestHandler(reg, request, transportChannel));
+                if (deserializeRequestsOnExecutor && ThreadPool.Names.SAME.equals(reg.getExecutor()) == false) {
+                    final ExecutorService executor = threadPool.executor(reg.getExecutor());
+                    if (retainer != null) {
+                        // hold on to the network bytes and leave the potentially expensive decompression and deserialization of
+                        // the rest of the request to the executor of the handler
+                        executor.execute(new DeferredRequestHandler(reg, stream, retainer.get(), remoteAddress, requestId,
+                            transportChannel));
+                    } else {
+                        // the network bytes are released once the message is handled, only the deserialization is deferred
+                        executor.execute(new DeferredRequestHandler(reg, copyRequest(stream, version), () -> {}, remoteAddress,
+                            requestId, transportChannel));
+                    }
+                } else {
+                    final TransportRequest request = reg.newRequest(stream);
+                    request.remoteAddress(new TransportAddress(remoteAddress));
+                    // in case we throw an exception, i.e. when the limit is hit, we don't want to verify
+                    validateRequest(stream, requestId, action);
+                    threadPool.executor(reg.getExecutor()).execute(new RequestHandler(reg, request, transportChannel));
+                }
             }
         } catch (Exception e) {
             // the circuit breaker tripped
@@ -1576,6 +1636,21 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         return action;
     }
 
+    /**
+     * Copies the rest of a request, decompressed, from a stream whose bytes are only valid while the message is being handled.
+     */
+    private StreamInput copyRequest(StreamInput stream, Version version) throws IOException {
+        final BytesStreamOutput out = new BytesStreamOutput();
+        final byte[] buffer = new byte[Streams.BUFFER_SIZE];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        final StreamInput copy = new NamedWriteableAwareStreamInput(out.bytes().streamInput(), namedWriteableRegistry);
+        copy.setVersion(version);
+        return copy;
+    }
+
     // This template method is needed to inject custom error checking logic in tests.
     protected void validateRequest(StreamInput stream, long requestId, String action) throws IOException {
         final int nextByte = stream.read();
@@ -1587,7 +1662,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     }
 
     class RequestHandler extends AbstractRunnable {
-        private final RequestHandlerRegistry reg;
+        final RequestHandlerRegistry reg;
         private final TransportRequest request;
         private final TransportChannel transportChannel;
 
@@ -1600,7 +1675,11 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         @SuppressWarnings({"unchecked"})
         @Override
         protected void doRun() throws Exception {
-            reg.processMessageReceived(request, transportChannel);
+            reg.processMessageReceived(getRequest(), transportChannel);
+        }
+
+        protected TransportRequest getRequest() throws IOException {
+            return request;
         }
 
         @Override
@@ -1623,6 +1702,44 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         }
     }
 
+    /**
+     * A {@link RequestHandler} that reads the request on the executor of the request handler instead of the network thread. It
+     * takes over the stream, which is positioned after the action name, and the retained network bytes behind it and releases both
+     * once it is done, whether the request could be handled or not.
+     */
+    final class DeferredRequestHandler extends RequestHandler {
+        private final StreamInput stream;
+        private final Releasable networkBytes;
+        private final InetSocketAddress remoteAddress;
+        private final long requestId;
+
+        DeferredRequestHandler(RequestHandlerRegistry reg, StreamInput stream, Releasable networkBytes, InetSocketAddress remoteAddress,
+                               long requestId, TransportChannel transportChannel) {
+            super(reg, null, transportChannel);
+            this.stream = stream;
+            this.networkBytes = networkBytes;
+            this.remoteAddress = remoteAddress;
+            this.requestId = requestId;
+        }
+
+        @Override
+        protected TransportRequest getRequest() throws IOException {
+            final TransportRequest request = reg.newRequest(stream);
+            request.remoteAddress(new TransportAddress(remoteAddress));
+            validateRequest(stream, requestId, reg.getAction());
+            return request;
+        }
+
+        @Override
+        public void onAfter() {
+            try {
+                IOUtils.closeWhileHandlingException(stream);
+            } finally {
+                networkBytes.close();
+            }
+        }
+    }
+
     private static final class VersionHandshakeResponse extends TransportResponse {
         private Version version;
 
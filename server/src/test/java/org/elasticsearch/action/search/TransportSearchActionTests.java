@@ -33,15 +33,29 @@ import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.TestShardRouting;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.MatchAllQueryBuilder;
+import org.elasticsearch.index.query.MatchNoneQueryBuilder;
 import org.elasticsearch.index.query.TermsQueryBuilder;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregationBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.transport.MockTransportService;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.ConnectTransportException;
+import org.elasticsearch.transport.NodeDisconnectedException;
+import org.elasticsearch.transport.NodeNotConnectedException;
 import org.elasticsearch.transport.RemoteClusterService;
+import org.elasticsearch.transport.RemoteTransportException;
+import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
@@ -268,6 +282,109 @@ public class TransportSearchActionTests extends ESTestCase {
         assertEquals(skipped, clusters.getSkipped());
     }
 
+    public void testSkipShardsIfMatchNone() {
+        int numShards = randomIntBetween(1, 10);
+        List<SearchShardIterator> shards = new ArrayList<>();
+        for (int i = 0; i < numShards; i++) {
+            ShardId shardId = new ShardId("index", "index_uuid", i);
+            ShardRouting shardRouting = TestShardRouting.newShardRouting(shardId, "node", true, STARTED);
+            shards.add(new SearchShardIterator(null, shardId, Collections.singletonList(shardRouting),
+                new OriginalIndices(new String[]{"index"}, IndicesOptions.strictExpandOpenAndForbidClosed())));
+        }
+        GroupShardsIterator<SearchShardIterator> shardsIts = new GroupShardsIterator<>(shards);
+
+        assertFalse(TransportSearchAction.skipShardsIfMatchNone(null, shardsIts));
+        assertFalse(TransportSearchAction.skipShardsIfMatchNone(new SearchSourceBuilder().query(new MatchAllQueryBuilder()), shardsIts));
+        assertFalse(TransportSearchAction.skipShardsIfMatchNone(new SearchSourceBuilder().query(new MatchNoneQueryBuilder())
+            .aggregation(new GlobalAggregationBuilder("global")), shardsIts));
+        for (SearchShardIterator iter : shardsIts) {
+            assertFalse(iter.skip());
+        }
+
+        assertTrue(TransportSearchAction.skipShardsIfMatchNone(new SearchSourceBuilder().query(new MatchNoneQueryBuilder()), shardsIts));
+        int i = 0;
+        for (SearchShardIterator iter : shardsIts) {
+            assertEquals(i++ != 0, iter.skip());
+            assertEquals(1, iter.remaining());
+        }
+    }
+
+    public void testShouldMinimizeRoundtrips() {
+        OriginalIndices noLocalIndices = new OriginalIndices(Strings.EMPTY_ARRAY, IndicesOptions.strictExpandOpenAndForbidClosed());
+        OriginalIndices localIndices = new OriginalIndices(new String[]{"local"}, IndicesOptions.strictExpandOpenAndForbidClosed());
+        Map<String, OriginalIndices> oneRemote = Collections.singletonMap("remote1", randomOriginalIndices());
+        Map<String, OriginalIndices> twoRemotes = new HashMap<>();
+        twoRemotes.put("remote1", randomOriginalIndices());
+        twoRemotes.put("remote2", randomOriginalIndices());
+
+        SearchRequest searchRequest = new SearchRequest();
+        assertFalse(TransportSearchAction.shouldMinimizeRoundtrips(searchRequest, noLocalIndices, oneRemote));
+        searchRequest.setCcsMinimizeRoundtrips(true);
+        assertTrue(TransportSearchAction.shouldMinimizeRoundtrips(searchRequest, noLocalIndices, oneRemote));
+        assertFalse(TransportSearchAction.shouldMinimizeRoundtrips(searchRequest, localIndices, oneRemote));
+        assertFalse(TransportSearchAction.shouldMinimizeRoundtrips(searchRequest, noLocalIndices, twoRemotes));
+        searchRequest.scroll(TimeValue.timeValueMinutes(1));
+        assertFalse(TransportSearchAction.shouldMinimizeRoundtrips(searchRequest, noLocalIndices, oneRemote));
+    }
+
+    public void testCopyForRemoteCluster() {
+        SearchRequest searchRequest = new SearchRequest("remote:index");
+        searchRequest.setCcsMinimizeRoundtrips(true);
+        searchRequest.routing(randomAlphaOfLengthBetween(3, 10));
+        searchRequest.preference(randomAlphaOfLengthBetween(3, 10));
+        searchRequest.setBatchedReduceSize(randomIntBetween(2, 100));
+        SearchRequest copy = searchRequest.copyForRemoteCluster(new String[]{"index"});
+        assertArrayEquals(new String[]{"index"}, copy.indices());
+        assertFalse(copy.isCcsMinimizeRoundtrips());
+        assertSame(searchRequest.source(), copy.source());
+        assertEquals(searchRequest.routing(), copy.routing());
+        assertEquals(searchRequest.preference(), copy.preference());
+        assertEquals(searchRequest.getBatchedReduceSize(), copy.getBatchedReduceSize());
+        assertEquals(searchRequest.indicesOptions(), copy.indicesOptions());
+    }
+
+    public void testBuildRemoteReducedResponse() {
+        int numHits = randomIntBetween(0, 10);
+        SearchHit[] hits = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            hits[i] = new SearchHit(i, "id" + i, new Text("type"), Collections.emptyMap());
+            hits[i].shard(new SearchShardTarget("node", new ShardId("index", "index_uuid", i), null, OriginalIndices.NONE));
+        }
+        InternalSearchResponse internalResponse = new InternalSearchResponse(new SearchHits(hits, numHits, 1.0f), null, null, null,
+            false, null, 1);
+        SearchResponse remoteResponse = new SearchResponse(internalResponse, null, 10, 9, 1, 5, ShardSearchFailure.EMPTY_ARRAY,
+            SearchResponse.Clusters.EMPTY);
+
+        SearchResponse response = TransportSearchAction.buildRemoteReducedResponse("remote", remoteResponse, 42);
+        assertEquals(42, response.getTook().millis());
+        assertEquals(10, response.getTotalShards());
+        assertEquals(9, response.getSuccessfulShards());
+        assertEquals(1, response.getSkippedShards());
+        assertEquals(new SearchResponse.Clusters(1, 1, 0), response.getClusters());
+        assertEquals(numHits, response.getHits().getHits().length);
+        for (SearchHit hit : response.getHits()) {
+            assertEquals("remote", hit.getClusterAlias());
+            assertEquals("remote", hit.getShard().getClusterAlias());
+            assertEquals("index", hit.getIndex());
+            assertEquals("node", hit.getShard().getNodeId());
+        }
+    }
+
+    public void testIsRemoteClusterUnavailable() {
+        DiscoveryNode node = new DiscoveryNode("node", buildNewFakeTransportAddress(), Version.CURRENT);
+        assertTrue(TransportSearchAction.isRemoteClusterUnavailable(new ConnectTransportException(node, "connect_timeout")));
+        assertTrue(TransportSearchAction.isRemoteClusterUnavailable(new NodeDisconnectedException(node, SearchAction.NAME)));
+        assertTrue(TransportSearchAction.isRemoteClusterUnavailable(
+            new TransportException("unable to communicate", new NodeNotConnectedException(node, "not connected"))));
+
+        // the remote cluster was reached but the search failed there
+        SearchPhaseExecutionException searchFailure = new SearchPhaseExecutionException("query", "all shards failed",
+            new ShardSearchFailure[] { new ShardSearchFailure(new IllegalArgumentException("For input string: \"not_a_number\""))});
+        assertFalse(TransportSearchAction.isRemoteClusterUnavailable(searchFailure));
+        assertFalse(TransportSearchAction.isRemoteClusterUnavailable(
+            new RemoteTransportException("node", buildNewFakeTransportAddress(), SearchAction.NAME, searchFailure)));
+    }
+
     private static OriginalIndices randomOriginalIndices() {
         int numLocalIndices = randomIntBetween(0, 5);
         String[] localIndices = new String[numLocalIndices];
@@ -37,16 +37,19 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.IndexScopedSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.test.gateway.TestGatewayAllocator;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.elasticsearch.cluster.metadata.IndexMetaData.INDEX_SHRINK_SOURCE_NAME;
 import static org.elasticsearch.cluster.metadata.IndexMetaData.INDEX_SHRINK_SOURCE_UUID;
 import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
 import static org.elasticsearch.cluster.routing.ShardRoutingState.STARTED;
 import static org.elasticsearch.cluster.routing.ShardRoutingState.UNASSIGNED;
+import static org.hamcrest.Matchers.startsWith;
 
 public class FilterAllocationDeciderTests extends ESAllocationTestCase {
 
@@ -138,6 +141,105 @@ public class FilterAllocationDeciderTests extends ESAllocationTestCase {
         assertEquals("node passes include/exclude/require filters", decision.getExplanation());
     }
 
+    public void testIndexNodeDecisionsAreCachedPerAllocation() {
+        ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        FilterAllocationDecider filterAllocationDecider = new FilterAllocationDecider(Settings.EMPTY, clusterSettings);
+        AllocationDeciders allocationDeciders = new AllocationDeciders(Settings.EMPTY,
+            Collections.singletonList(filterAllocationDecider));
+        AllocationService service = new AllocationService(Settings.builder().build(), allocationDeciders,
+            new TestGatewayAllocator(), new BalancedShardsAllocator(Settings.EMPTY), EmptyClusterInfoService.INSTANCE);
+        ClusterState state = createInitialClusterState(service, Settings.builder().put("index.routing.allocation.exclude._id",
+            "node1").build());
+        Index index = state.metaData().index("idx").getIndex();
+
+        RoutingAllocation allocation = new RoutingAllocation(allocationDeciders, state.getRoutingNodes(), state, null, 0);
+        AtomicInteger computations = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            Decision decision = allocation.getOrComputeIndexNodeDecision(FilterAllocationDecider.NAME, index, "node1", () -> {
+                computations.incrementAndGet();
+                return Decision.NO;
+            });
+            assertSame(Decision.NO, decision);
+        }
+        assertEquals(1, computations.get());
+        assertEquals(Type.NO, filterAllocationDecider.canAllocate(state.metaData().index("idx"),
+            state.getRoutingNodes().node("node1"), allocation).type());
+        assertEquals(Type.YES, filterAllocationDecider.canAllocate(state.metaData().index("idx"),
+            state.getRoutingNodes().node("node2"), allocation).type());
+
+        // explanations must not be lost when debugging, so decisions are always computed
+        allocation.debugDecision(true);
+        allocation.getOrComputeIndexNodeDecision(FilterAllocationDecider.NAME, index, "node1", () -> {
+            computations.incrementAndGet();
+            return Decision.NO;
+        });
+        assertEquals(2, computations.get());
+        Decision.Single decision = (Decision.Single) filterAllocationDecider.canAllocate(state.metaData().index("idx"),
+            state.getRoutingNodes().node("node1"), allocation);
+        assertEquals(Type.NO, decision.type());
+        assertThat(decision.getExplanation(), startsWith("node matches index setting"));
+    }
+
+    public void testDecisionsWithoutFiltersAreNotCached() {
+        ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        FilterAllocationDecider filterAllocationDecider = new FilterAllocationDecider(Settings.EMPTY, clusterSettings);
+        AllocationDeciders allocationDeciders = new AllocationDeciders(Settings.EMPTY,
+            Collections.singletonList(filterAllocationDecider));
+        AllocationService service = new AllocationService(Settings.builder().build(), allocationDeciders,
+            new TestGatewayAllocator(), new BalancedShardsAllocator(Settings.EMPTY), EmptyClusterInfoService.INSTANCE);
+        ClusterState state = createInitialClusterState(service, Settings.EMPTY);
+        IndexMetaData indexMetaData = state.metaData().index("idx");
+
+        RoutingAllocation allocation = new RoutingAllocation(allocationDeciders, state.getRoutingNodes(), state, null, 0);
+        assertEquals(Type.YES, filterAllocationDecider.canAllocate(indexMetaData, state.getRoutingNodes().node("node1"), allocation)
+            .type());
+        assertEquals(Type.YES, filterAllocationDecider.canRemain(state.routingTable().index("idx").shard(0).primaryShard(),
+            state.getRoutingNodes().node("node1"), allocation).type());
+
+        // neither cache was populated, so both compute their decision
+        AtomicInteger computations = new AtomicInteger();
+        allocation.getOrComputeNodeDecision(FilterAllocationDecider.NAME, "node1", () -> {
+            computations.incrementAndGet();
+            return Decision.NO;
+        });
+        allocation.getOrComputeIndexNodeDecision(FilterAllocationDecider.NAME, indexMetaData.getIndex(), "node1", () -> {
+            computations.incrementAndGet();
+            return Decision.NO;
+        });
+        assertEquals(2, computations.get());
+    }
+
+    public void testClusterFilterDecisionsAreCachedPerNode() {
+        Settings settings = Settings.builder().put("cluster.routing.allocation.exclude._id", "node1").build();
+        ClusterSettings clusterSettings = new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        FilterAllocationDecider filterAllocationDecider = new FilterAllocationDecider(settings, clusterSettings);
+        AllocationDeciders allocationDeciders = new AllocationDeciders(Settings.EMPTY,
+            Collections.singletonList(filterAllocationDecider));
+        AllocationService service = new AllocationService(Settings.builder().build(), allocationDeciders,
+            new TestGatewayAllocator(), new BalancedShardsAllocator(Settings.EMPTY), EmptyClusterInfoService.INSTANCE);
+        ClusterState state = createInitialClusterState(service, Settings.EMPTY);
+        IndexMetaData indexMetaData = state.metaData().index("idx");
+
+        RoutingAllocation allocation = new RoutingAllocation(allocationDeciders, state.getRoutingNodes(), state, null, 0);
+        assertEquals(Type.NO, filterAllocationDecider.canAllocate(indexMetaData, state.getRoutingNodes().node("node1"), allocation)
+            .type());
+        assertEquals(Type.YES, filterAllocationDecider.canAllocate(indexMetaData, state.getRoutingNodes().node("node2"), allocation)
+            .type());
+
+        // the decisions are cached per node, not per index
+        AtomicInteger computations = new AtomicInteger();
+        Decision decision = allocation.getOrComputeNodeDecision(FilterAllocationDecider.NAME, "node1", () -> {
+            computations.incrementAndGet();
+            return Decision.YES;
+        });
+        assertEquals(Type.NO, decision.type());
+        allocation.getOrComputeIndexNodeDecision(FilterAllocationDecider.NAME, indexMetaData.getIndex(), "node1", () -> {
+            computations.incrementAndGet();
+            return Decision.YES;
+        });
+        assertEquals(1, computations.get());
+    }
+
     private ClusterState createInitialClusterState(AllocationService service, Settings settings) {
         RecoverySource.Type recoveryType = randomFrom(FilterAllocationDecider.INITIAL_RECOVERY_TYPES);
         MetaData.Builder metaData = MetaData.builder();
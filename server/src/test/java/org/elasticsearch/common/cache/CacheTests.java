@@ -47,6 +47,7 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 
 public class CacheTests extends ESTestCase {
@@ -378,6 +379,98 @@ public class CacheTests extends ESTestCase {
         }
     }
 
+    // read some entries while another thread holds the lock of the LRU list, then check that the reads did not wait for the lock
+    // and that the entries were promoted once the lock was released
+    public void testReadsAreBufferedWhileLruListIsLocked() throws InterruptedException {
+        int entries = randomIntBetween(2, 32);
+        int lockingKey = -1;
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // the removal listener is notified while holding the lock of the LRU list
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+                .setMaximumWeight(entries + 1)
+                .removalListener(notification -> {
+                    if (notification.getKey() == lockingKey) {
+                        locked.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw new AssertionError(e);
+                        }
+                    }
+                })
+                .build();
+        cache.put(lockingKey, "locking");
+        for (int i = 0; i < entries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+
+        Thread lockingThread = new Thread(() -> cache.invalidate(lockingKey));
+        lockingThread.start();
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        // read the least recently used entries, which would be evicted first if the reads were not recorded
+        int numberOfReads = randomIntBetween(1, entries - 1);
+        Thread readingThread = new Thread(() -> {
+            for (int i = 0; i < numberOfReads; i++) {
+                assertEquals(Integer.toString(i), cache.get(i));
+            }
+        });
+        readingThread.start();
+        readingThread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse("reads must not wait for the lock of the LRU list", readingThread.isAlive());
+        release.countDown();
+        lockingThread.join();
+        assertEquals(numberOfReads, cache.stats().getHits());
+
+        // the next insertion promotes the buffered reads, the following insertions evict the entries that were not read
+        for (int i = 0; i <= entries - numberOfReads; i++) {
+            cache.put(entries + i, Integer.toString(entries + i));
+        }
+        // the invalidated entry counts as an eviction too
+        assertEquals(entries - numberOfReads + 1, cache.stats().getEvictions());
+        for (int i = 0; i < entries; i++) {
+            if (i < numberOfReads) {
+                assertEquals(Integer.toString(i), cache.get(i));
+            } else {
+                assertNull(cache.get(i));
+            }
+        }
+    }
+
+    // cache some entries and keep using them while scanning through many entries that are used only once, then check that
+    // frequency based admission kept the entries in use in the cache
+    public void testFrequencyBasedAdmission() {
+        int maximumWeight = 100;
+        AtomicLong evictions = new AtomicLong();
+        Cache<Integer, String> cache =
+                CacheBuilder.<Integer, String>builder()
+                        .setMaximumWeight(maximumWeight)
+                        .setFrequencyBasedAdmission(true)
+                        .removalListener(notification -> evictions.incrementAndGet())
+                        .build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        for (int i = 0; i < 3 * maximumWeight; i++) {
+            cache.get(i % maximumWeight);
+        }
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(maximumWeight + i, Integer.toString(maximumWeight + i));
+            cache.get(i % maximumWeight);
+        }
+        assertEquals(maximumWeight, cache.count());
+        assertEquals(numberOfEntries, evictions.get());
+        assertEquals(evictions.get(), cache.stats().getEvictions());
+
+        int cached = 0;
+        for (int i = 0; i < maximumWeight; i++) {
+            if (cache.get(i) != null) {
+                cached++;
+            }
+        }
+        // the frequency of a key is an estimate, so a few entries used only once may still be admitted
+        assertThat(cached, greaterThanOrEqualTo(maximumWeight * 9 / 10));
+    }
 
     // randomly invalidate some cached entries, then check that a lookup for each of those and only those keys is null
     public void testInvalidate() {
@@ -0,0 +1,108 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LatencyHistogramTests extends ESTestCase {
+
+    public void testBucketBounds() {
+        for (int i = 0; i < 10000; i++) {
+            final long micros = randomLongBetween(0, TimeUnit.DAYS.toMicros(1));
+            final int bucket = LatencyHistogram.bucketIndex(micros);
+            final long highest = LatencyHistogram.highestEquivalentValue(bucket);
+            assertThat(highest, greaterThanOrEqualTo(micros));
+            assertThat((double) highest, lessThanOrEqualTo(micros * 1.25 + 1));
+            if (bucket > 0) {
+                assertThat(LatencyHistogram.highestEquivalentValue(bucket - 1), lessThanOrEqualTo(micros - 1));
+            }
+        }
+        assertEquals(LatencyHistogram.NUM_BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    public void testPercentiles() {
+        HistogramMetric metric = new HistogramMetric();
+        assertEquals(0, metric.snapshot().getPercentileInMicros(99));
+        for (int i = 1; i <= 100; i++) {
+            metric.inc(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        LatencyHistogram histogram = metric.snapshot();
+        assertEquals(100, histogram.getCount());
+        assertPercentile(histogram, 50, TimeUnit.MILLISECONDS.toMicros(50));
+        assertPercentile(histogram, 99, TimeUnit.MILLISECONDS.toMicros(99));
+        assertPercentile(histogram, 100, TimeUnit.MILLISECONDS.toMicros(100));
+        expectThrows(IllegalArgumentException.class, () -> histogram.getPercentileInMicros(101));
+
+        metric.clear();
+        assertEquals(0, metric.snapshot().getCount());
+    }
+
+    public void testMergeAndSerialize() throws IOException {
+        HistogramMetric first = new HistogramMetric();
+        HistogramMetric second = new HistogramMetric();
+        HistogramMetric all = new HistogramMetric();
+        int numValues = randomIntBetween(1, 1000);
+        for (int i = 0; i < numValues; i++) {
+            long nanos = randomLongBetween(0, TimeUnit.SECONDS.toNanos(100));
+            (randomBoolean() ? first : second).inc(nanos);
+            all.inc(nanos);
+        }
+        LatencyHistogram merged = first.snapshot();
+        merged.add(second.snapshot());
+        assertEquals(all.snapshot(), merged);
+
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            merged.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                assertEquals(merged, new LatencyHistogram(in));
+            }
+        }
+    }
+
+    public void testReadMoreBuckets() throws IOException {
+        final int extraBuckets = randomIntBetween(1, 10);
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeVInt(LatencyHistogram.NUM_BUCKETS + extraBuckets);
+            for (int i = 0; i < LatencyHistogram.NUM_BUCKETS + extraBuckets; i++) {
+                out.writeVLong(1);
+            }
+            try (StreamInput in = out.bytes().streamInput()) {
+                LatencyHistogram histogram = new LatencyHistogram(in);
+                assertEquals(LatencyHistogram.NUM_BUCKETS + extraBuckets, histogram.getCount());
+                assertEquals(LatencyHistogram.highestEquivalentValue(LatencyHistogram.NUM_BUCKETS - 1),
+                    histogram.getPercentileInMicros(100));
+            }
+        }
+    }
+
+    private static void assertPercentile(LatencyHistogram histogram, double percentile, long expectedMicros) {
+        long actual = histogram.getPercentileInMicros(percentile);
+        assertThat(actual, greaterThanOrEqualTo(expectedMicros));
+        assertThat((double) actual, lessThanOrEqualTo(expectedMicros * 1.25));
+    }
+}
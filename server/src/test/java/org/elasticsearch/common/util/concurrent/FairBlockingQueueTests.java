@@ -0,0 +1,135 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FairBlockingQueueTests extends ESTestCase {
+
+    public void testElementsAreHandedOutRoundRobinAcrossKeys() {
+        final AtomicReference<String> key = new AtomicReference<>();
+        final FairBlockingQueue<String> queue = new FairBlockingQueue<>(key::get);
+
+        // a burst of the first tenant is queued before the other tenants show up
+        key.set("a");
+        for (int i = 0; i < 4; i++) {
+            queue.offer("a" + i);
+        }
+        key.set("b");
+        queue.offer("b0");
+        queue.offer("b1");
+        key.set(null);
+        queue.offer("default0");
+        assertThat(queue.size(), equalTo(7));
+        assertThat(queue.peek(), equalTo("a0"));
+
+        final List<String> iterated = new ArrayList<>();
+        queue.iterator().forEachRemaining(iterated::add);
+        final List<String> polled = new ArrayList<>();
+        String element;
+        while ((element = queue.poll()) != null) {
+            polled.add(element);
+        }
+        assertThat(polled, contains("a0", "b0", "default0", "a1", "b1", "a2", "a3"));
+        assertThat(iterated, equalTo(polled));
+        assertThat(queue.size(), equalTo(0));
+    }
+
+    public void testRemoveAndDrain() {
+        final AtomicReference<String> key = new AtomicReference<>();
+        final FairBlockingQueue<String> queue = new FairBlockingQueue<>(key::get);
+        key.set("a");
+        queue.offer("a0");
+        queue.offer("a1");
+        key.set("b");
+        queue.offer("b0");
+
+        assertTrue(queue.remove("b0"));
+        assertFalse(queue.remove("b0"));
+        assertThat(queue.size(), equalTo(2));
+        final List<String> remaining = new ArrayList<>();
+        queue.iterator().forEachRemaining(remaining::add);
+        assertThat(remaining, contains("a0", "a1"));
+
+        final List<String> drained = new ArrayList<>();
+        assertThat(queue.drainTo(drained, 1), equalTo(1));
+        assertThat(queue.drainTo(drained), equalTo(1));
+        assertThat(drained, contains("a0", "a1"));
+        assertNull(queue.poll());
+    }
+
+    public void testPollWaitsForElements() throws Exception {
+        final FairBlockingQueue<String> queue = new FairBlockingQueue<>(() -> "key");
+        assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+        final Thread thread = new Thread(() -> queue.offer("element"));
+        thread.start();
+        assertThat(queue.take(), equalTo("element"));
+        thread.join();
+    }
+
+    public void testKeyedByThreadContextInExecutor() throws Exception {
+        final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        final EsThreadPoolExecutor executor = EsExecutors.newFixed(getTestName(), 1, 100, "tenant",
+            EsExecutors.daemonThreadFactory("test"), threadContext);
+        try {
+            final List<String> executed = new ArrayList<>();
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            // occupy the single thread so that all further tasks are queued
+            executor.execute(() -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            blocked.await();
+            for (String tenant : new String[] {"a", "a", "a", "b"}) {
+                try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                    threadContext.putHeader("tenant", tenant);
+                    executor.execute(() -> {
+                        synchronized (executed) {
+                            executed.add(threadContext.getHeader("tenant"));
+                        }
+                    });
+                }
+            }
+            release.countDown();
+            assertBusy(() -> {
+                synchronized (executed) {
+                    assertThat(executed, contains("a", "b", "a", "a"));
+                }
+            });
+        } finally {
+            terminate(executor);
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
@@ -69,6 +70,12 @@ public class XContentMapValuesTests extends AbstractFilteringTestCase {
         assertEquals("Filtered map must be equal to the expected map",
                 toMap(expected, xContentType, humanReadable),
                 XContentMapValues.filter(toMap(actual, xContentType, humanReadable), sourceIncludes, sourceExcludes));
+
+        BytesReference streamed = XContentHelper.filter(toBytes(actual, xContentType, humanReadable), xContentType,
+                XContentMapValues.streamingFilter(sourceIncludes, sourceExcludes)).v2();
+        assertEquals("Streamed filtered map must be equal to the expected map",
+                toMap(expected, xContentType, humanReadable),
+                convertToMap(streamed, true, xContentType).v2());
     }
 
     @SuppressWarnings({"unchecked"})
@@ -489,8 +496,54 @@ public class XContentMapValuesTests extends AbstractFilteringTestCase {
         assertEquals(expected, filtered);
     }
 
-    private static Map<String, Object> toMap(Builder test, XContentType xContentType, boolean humanReadable) throws IOException {
+    public void testStreamingFilterKeepsEmptyObjectsLikeMapFilter() throws Exception {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+                .startObject("obj1")
+                    .startObject("obj2")
+                        .startObject("obj3").endObject()
+                    .endObject()
+                    .startArray("arr").startObject().field("f", 1).endObject().value(2).endArray()
+                .endObject()
+                .field("f2", "v2")
+                .endObject();
+        BytesReference source = BytesReference.bytes(builder);
+        Map<String, Object> map = convertToMap(source, true, XContentType.JSON).v2();
+
+        String[][][] filters = new String[][][] {
+            {{"obj1"}, {"*.obj2"}},
+            {{"*.obj2"}, {"*.obj3"}},
+            {{}, {"*.obj2", "obj1.arr.f"}},
+            {{"obj1.arr"}, {}},
+            {{"obj1.arr.f"}, {}},
+            {{"obj1.obj2.obj3", "f2"}, {}},
+            {{"nothing"}, {}}
+        };
+        for (String[][] filter : filters) {
+            BytesReference streamed = XContentHelper.filter(source, XContentType.JSON,
+                    XContentMapValues.streamingFilter(filter[0], filter[1])).v2();
+            assertEquals(Arrays.toString(filter[0]) + " " + Arrays.toString(filter[1]),
+                    XContentMapValues.filter(map, filter[0], filter[1]), convertToMap(streamed, true, XContentType.JSON).v2());
+        }
+    }
+
+    public void testStreamingFilterKeepsFieldOrder() throws Exception {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+                .field("c", 1)
+                .field("a", 2)
+                .field("excluded", 3)
+                .field("b", 4)
+                .endObject();
+        BytesReference streamed = XContentHelper.filter(BytesReference.bytes(builder), null,
+                XContentMapValues.streamingFilter(Strings.EMPTY_ARRAY, new String[] {"excluded"})).v2();
+        assertEquals("{\"c\":1,\"a\":2,\"b\":4}", streamed.utf8ToString());
+    }
+
+    private static BytesReference toBytes(Builder test, XContentType xContentType, boolean humanReadable) throws IOException {
         ToXContentObject toXContent = (builder, params) -> test.apply(builder);
-        return convertToMap(toXContent(toXContent, xContentType, humanReadable), true, xContentType).v2();
+        return toXContent(toXContent, xContentType, humanReadable);
+    }
+
+    private static Map<String, Object> toMap(Builder test, XContentType xContentType, boolean humanReadable) throws IOException {
+        return convertToMap(toBytes(test, xContentType, humanReadable), true, xContentType).v2();
     }
 }
@@ -0,0 +1,153 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.analysis;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class TokenStreamCachingAnalyzerTests extends ESTestCase {
+
+    private static final long MAX_SIZE_IN_BYTES = 1 << 20;
+
+    private static final String VALUE = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/66.0.3359.139";
+
+    public void testCachedTokensAreReplayed() throws IOException {
+        TokenStreamCachingAnalyzer analyzer = new TokenStreamCachingAnalyzer(new StandardAnalyzer(), MAX_SIZE_IN_BYTES);
+        Field field = new TokenStreamCachingAnalyzer.CacheableField("field", VALUE, TextField.TYPE_NOT_STORED);
+        List<String> expected = tokens(new Field("field", VALUE, TextField.TYPE_NOT_STORED).tokenStream(new StandardAnalyzer(), null));
+
+        assertThat(tokens(field.tokenStream(analyzer, null)), equalTo(expected));
+        assertEquals(0, analyzer.getHitCount());
+        assertEquals(1, analyzer.getMissCount());
+
+        for (int i = 1; i <= 3; i++) {
+            assertThat(tokens(field.tokenStream(analyzer, null)), equalTo(expected));
+            assertEquals(i, analyzer.getHitCount());
+            assertEquals(1, analyzer.getMissCount());
+        }
+
+        // fields share the cache, but not their entries
+        Field otherField = new TokenStreamCachingAnalyzer.CacheableField("other_field", VALUE, TextField.TYPE_NOT_STORED);
+        tokens(otherField.tokenStream(analyzer, null));
+        assertEquals(3, analyzer.getHitCount());
+        assertEquals(2, analyzer.getMissCount());
+    }
+
+    public void testPartiallyConsumedValuesAreNotCached() throws IOException {
+        TokenStreamCachingAnalyzer analyzer = new TokenStreamCachingAnalyzer(new StandardAnalyzer(), MAX_SIZE_IN_BYTES);
+        Field field = new TokenStreamCachingAnalyzer.CacheableField("field", VALUE, TextField.TYPE_NOT_STORED);
+        try (TokenStream stream = field.tokenStream(analyzer, null)) {
+            stream.reset();
+            assertTrue(stream.incrementToken());
+        }
+        tokens(field.tokenStream(analyzer, null));
+        assertEquals(0, analyzer.getHitCount());
+        assertEquals(2, analyzer.getMissCount());
+    }
+
+    public void testValuesWithTooManyTokensAreNotCached() throws IOException {
+        TokenStreamCachingAnalyzer analyzer = new TokenStreamCachingAnalyzer(new StandardAnalyzer(), MAX_SIZE_IN_BYTES);
+        String[] words = new String[TokenStreamCachingAnalyzer.MAX_TOKENS_PER_VALUE + 1];
+        Arrays.fill(words, "a1");
+        Field field = new TokenStreamCachingAnalyzer.CacheableField("field", String.join(" ", words), TextField.TYPE_NOT_STORED);
+        assertEquals(words.length, tokens(field.tokenStream(analyzer, null)).size() - 1);
+        assertEquals(words.length, tokens(field.tokenStream(analyzer, null)).size() - 1);
+        assertEquals(0, analyzer.getHitCount());
+        assertEquals(2, analyzer.getMissCount());
+    }
+
+    public void testLongValuesAreNotLookedUp() throws IOException {
+        TokenStreamCachingAnalyzer analyzer = new TokenStreamCachingAnalyzer(new StandardAnalyzer(), MAX_SIZE_IN_BYTES);
+        String value = randomAlphaOfLength(TokenStreamCachingAnalyzer.MAX_VALUE_LENGTH + 1);
+        Field field = new TokenStreamCachingAnalyzer.CacheableField("field", value, TextField.TYPE_NOT_STORED);
+        tokens(field.tokenStream(analyzer, null));
+        tokens(field.tokenStream(analyzer, null));
+        assertEquals(0, analyzer.getHitCount());
+        assertEquals(0, analyzer.getMissCount());
+    }
+
+    public void testSizeIsBounded() throws IOException {
+        TokenStreamCachingAnalyzer analyzer = new TokenStreamCachingAnalyzer(new StandardAnalyzer(), 16 * 1024);
+        Field field = new TokenStreamCachingAnalyzer.CacheableField("field", VALUE, TextField.TYPE_NOT_STORED);
+        tokens(field.tokenStream(analyzer, null));
+        long valueSizeInBytes = analyzer.getCacheSizeInBytes();
+        // the size accounts for the value and for the copies of the attributes of every token
+        assertThat(valueSizeInBytes, greaterThan(2L * VALUE.length()));
+
+        for (int i = 0; i < 100; i++) {
+            String value = randomAlphaOfLength(between(1, TokenStreamCachingAnalyzer.MAX_VALUE_LENGTH));
+            Field otherField = new TokenStreamCachingAnalyzer.CacheableField(randomFrom("field", "other_field"), value,
+                TextField.TYPE_NOT_STORED);
+            tokens(otherField.tokenStream(analyzer, null));
+            assertThat(analyzer.getCacheSizeInBytes(), lessThanOrEqualTo(16L * 1024));
+        }
+
+        // longer values use more of the cache than short ones with the same number of tokens
+        TokenStreamCachingAnalyzer shortValueAnalyzer = new TokenStreamCachingAnalyzer(new StandardAnalyzer(), MAX_SIZE_IN_BYTES);
+        tokens(new TokenStreamCachingAnalyzer.CacheableField("field", "a", TextField.TYPE_NOT_STORED)
+            .tokenStream(shortValueAnalyzer, null));
+        TokenStreamCachingAnalyzer longValueAnalyzer = new TokenStreamCachingAnalyzer(new StandardAnalyzer(), MAX_SIZE_IN_BYTES);
+        tokens(new TokenStreamCachingAnalyzer.CacheableField("field", randomAlphaOfLength(200), TextField.TYPE_NOT_STORED)
+            .tokenStream(longValueAnalyzer, null));
+        assertThat(longValueAnalyzer.getCacheSizeInBytes(), greaterThan(shortValueAnalyzer.getCacheSizeInBytes() + 400));
+    }
+
+    public void testOtherAnalyzersAnalyze() throws IOException {
+        Analyzer analyzer = new StandardAnalyzer();
+        Field field = new TokenStreamCachingAnalyzer.CacheableField("field", VALUE, TextField.TYPE_NOT_STORED);
+        List<String> expected = tokens(new Field("field", VALUE, TextField.TYPE_NOT_STORED).tokenStream(analyzer, null));
+        assertThat(tokens(field.tokenStream(analyzer, null)), equalTo(expected));
+    }
+
+    /**
+     * Consumes the stream the way the indexing chain does and describes each token, followed by the state after the end of the stream.
+     */
+    private static List<String> tokens(TokenStream stream) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream ts = stream) {
+            CharTermAttribute term = ts.addAttribute(CharTermAttribute.class);
+            OffsetAttribute offset = ts.addAttribute(OffsetAttribute.class);
+            PositionIncrementAttribute positionIncrement = ts.addAttribute(PositionIncrementAttribute.class);
+            ts.reset();
+            while (ts.incrementToken()) {
+                tokens.add(term + "[" + offset.startOffset() + "-" + offset.endOffset() + "]+" + positionIncrement.getPositionIncrement());
+            }
+            ts.end();
+            tokens.add("end[" + offset.endOffset() + "]+" + positionIncrement.getPositionIncrement());
+        }
+        return tokens;
+    }
+}
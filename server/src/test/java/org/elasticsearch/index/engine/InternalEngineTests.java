@@ -27,14 +27,18 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.appender.AbstractAppender;
 import org.apache.logging.log4j.core.filter.RegexFilter;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -44,12 +48,17 @@ import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.LiveIndexWriterConfig;
 import org.apache.lucene.index.LogByteSizeMergePolicy;
 import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.ReferenceManager;
@@ -94,6 +103,9 @@ import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.analysis.AnalyzerScope;
+import org.elasticsearch.index.analysis.NamedAnalyzer;
+import org.elasticsearch.index.analysis.TokenStreamCachingAnalyzer;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.engine.Engine.Searcher;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
@@ -119,6 +131,7 @@ import org.elasticsearch.index.translog.SnapshotMatchers;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.test.IndexSettingsModule;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 
@@ -4673,6 +4686,88 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    public void testAnalysisCacheIndexesTheSameTokens() throws IOException {
+        // text fields have a position increment gap between their values
+        Analyzer analyzer = new NamedAnalyzer("standard", AnalyzerScope.INDEX, new StandardAnalyzer(), 100);
+        FieldType fieldType = new FieldType(TextField.TYPE_NOT_STORED);
+        fieldType.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        fieldType.freeze();
+        String[] values = new String[] {
+            "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/66.0.3359.139",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10.13; rv:60.0) Gecko/20100101 Firefox/60.0",
+            "failed to connect to [10.0.0.1:9300], retrying in [5s]",
+            "the the the",
+            "single",
+            ""
+        };
+        List<ParsedDocument> docs = new ArrayList<>();
+        int numDocs = scaledRandomIntBetween(10, 100);
+        for (int i = 0; i < numDocs; i++) {
+            ParseContext.Document document = testDocument();
+            for (String field : new String[] {"message", "user_agent"}) {
+                int numValues = randomIntBetween(1, 3);
+                for (int j = 0; j < numValues; j++) {
+                    document.add(new TokenStreamCachingAnalyzer.CacheableField(field, randomFrom(values), fieldType));
+                }
+            }
+            docs.add(testParsedDocument(Integer.toString(i), null, document, B_1, null));
+        }
+
+        IndexSettings cachingSettings = IndexSettingsModule.newIndexSettings("test", Settings.builder()
+            .put(defaultSettings.getSettings())
+            .put(EngineConfig.INDEX_ANALYSIS_CACHE_SIZE_SETTING.getKey(), "1mb")
+            .build());
+        try (Store store = createStore();
+             Store cachingStore = createStore();
+             InternalEngine engine = createEngine(copy(config(defaultSettings, store, createTempDir(), NoMergePolicy.INSTANCE, null),
+                 analyzer));
+             InternalEngine cachingEngine = createEngine(copy(config(cachingSettings, cachingStore, createTempDir(),
+                 NoMergePolicy.INSTANCE, null), analyzer))) {
+            for (ParsedDocument doc : docs) {
+                engine.index(indexForDoc(doc));
+                cachingEngine.index(indexForDoc(doc));
+            }
+            engine.refresh("test");
+            cachingEngine.refresh("test");
+            assertEquals(0, engine.getAnalysisCacheHitCount());
+            assertEquals(0, engine.getAnalysisCacheMissCount());
+            assertThat(cachingEngine.getAnalysisCacheHitCount(), greaterThan(0L));
+
+            try (Engine.Searcher searcher = engine.acquireSearcher("test");
+                 Engine.Searcher cachingSearcher = cachingEngine.acquireSearcher("test")) {
+                for (String field : new String[] {"message", "user_agent"}) {
+                    assertSamePostings(field, MultiFields.getTerms(searcher.reader(), field),
+                        MultiFields.getTerms(cachingSearcher.reader(), field));
+                }
+            }
+        }
+    }
+
+    private static void assertSamePostings(String field, Terms expected, Terms actual) throws IOException {
+        TermsEnum expectedTerms = expected.iterator();
+        TermsEnum actualTerms = actual.iterator();
+        PostingsEnum expectedPostings = null;
+        PostingsEnum actualPostings = null;
+        for (BytesRef term = expectedTerms.next(); term != null; term = expectedTerms.next()) {
+            assertEquals(field, term, actualTerms.next());
+            expectedPostings = expectedTerms.postings(expectedPostings, PostingsEnum.ALL);
+            actualPostings = actualTerms.postings(actualPostings, PostingsEnum.ALL);
+            String message = field + ":" + term.utf8ToString();
+            for (int doc = expectedPostings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = expectedPostings.nextDoc()) {
+                assertEquals(message, doc, actualPostings.nextDoc());
+                assertEquals(message, expectedPostings.freq(), actualPostings.freq());
+                for (int i = 0; i < expectedPostings.freq(); i++) {
+                    assertEquals(message, expectedPostings.nextPosition(), actualPostings.nextPosition());
+                    assertEquals(message, expectedPostings.startOffset(), actualPostings.startOffset());
+                    assertEquals(message, expectedPostings.endOffset(), actualPostings.endOffset());
+                    assertEquals(message, expectedPostings.getPayload(), actualPostings.getPayload());
+                }
+            }
+            assertEquals(message, DocIdSetIterator.NO_MORE_DOCS, actualPostings.nextDoc());
+        }
+        assertNull(field, actualTerms.next());
+    }
+
     private static void trimUnsafeCommits(EngineConfig config) throws IOException {
         final Store store = config.getStore();
         final TranslogConfig translogConfig = config.getTranslogConfig();
@@ -0,0 +1,63 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.index.fielddata;
+
+import org.elasticsearch.index.fielddata.ScriptDocValues.Doubles;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ScriptDocValuesDoublesTests extends ESTestCase {
+    public void testValuesAreLoadedOncePerDocument() throws IOException {
+        double[][] values = new double[][] {new double[] {1.5, 2.5}, new double[] {3.5}};
+        AtomicInteger loads = new AtomicInteger();
+        Doubles doubles = new Doubles(new SortedNumericDoubleValues() {
+            int doc;
+            int i;
+
+            @Override
+            public boolean advanceExact(int doc) {
+                loads.incrementAndGet();
+                this.doc = doc;
+                i = 0;
+                return true;
+            }
+            @Override
+            public int docValueCount() {
+                return values[doc].length;
+            }
+            @Override
+            public double nextValue() {
+                return values[doc][i++];
+            }
+        });
+
+        doubles.setNextDocId(0);
+        doubles.setNextDocId(0);
+        assertEquals(1, loads.get());
+        assertEquals(2, doubles.size());
+        assertEquals(1.5, doubles.getValue(), 0);
+        doubles.setNextDocId(1);
+        doubles.setNextDocId(1);
+        assertEquals(2, loads.get());
+        assertEquals(1, doubles.size());
+        assertEquals(3.5, doubles.getValue(), 0);
+    }
+}
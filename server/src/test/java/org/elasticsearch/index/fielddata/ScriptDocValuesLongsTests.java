@@ -34,6 +34,7 @@ import java.security.PrivilegedAction;
 import java.security.ProtectionDomain;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -128,6 +129,42 @@ public class ScriptDocValuesLongsTests extends ESTestCase {
                 "getDates on numeric fields is deprecated. Use a date field to get dates."));
     }
 
+    public void testValuesAreLoadedOncePerDocument() throws IOException {
+        long[][] values = new long[][] {new long[] {1, 2}, new long[] {3}};
+        AtomicInteger loads = new AtomicInteger();
+        Longs longs = new Longs(new AbstractSortedNumericDocValues() {
+            int doc;
+            int i;
+
+            @Override
+            public boolean advanceExact(int doc) {
+                loads.incrementAndGet();
+                this.doc = doc;
+                i = 0;
+                return true;
+            }
+            @Override
+            public int docValueCount() {
+                return values[doc].length;
+            }
+            @Override
+            public long nextValue() {
+                return values[doc][i++];
+            }
+        }, deprecationMessage -> {fail("unexpected deprecation: " + deprecationMessage);});
+
+        longs.setNextDocId(0);
+        longs.setNextDocId(0);
+        assertEquals(1, loads.get());
+        assertEquals(2, longs.size());
+        assertEquals(1L, longs.getValue());
+        longs.setNextDocId(1);
+        longs.setNextDocId(1);
+        assertEquals(2, loads.get());
+        assertEquals(1, longs.size());
+        assertEquals(3L, longs.getValue());
+    }
+
     private Longs wrap(long[][] values, Consumer<String> deprecationCallback) {
         return new Longs(new AbstractSortedNumericDocValues() {
             long[] current;
@@ -0,0 +1,96 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ObjectFieldLookupTests extends ESSingleNodeTestCase {
+
+    private DocumentMapper createMapper() throws Exception {
+        DocumentMapperParser mapperParser = createIndex("test").mapperService().documentMapperParser();
+        String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type").startObject("properties")
+            .startObject("message").field("type", "text").endObject()
+            .startObject("host").startObject("properties")
+                .startObject("name").field("type", "keyword").endObject()
+                .startObject("os").startObject("properties")
+                    .startObject("version").field("type", "keyword").endObject()
+                .endObject().endObject()
+            .endObject().endObject()
+            .startObject("tags").field("type", "nested").startObject("properties")
+                .startObject("value").field("type", "keyword").endObject()
+            .endObject().endObject()
+            .endObject().endObject().endObject());
+        return mapperParser.parse("type", new CompressedXContent(mapping));
+    }
+
+    public void testLookup() throws Exception {
+        DocumentMapper mapper = createMapper();
+        ObjectFieldLookup lookup = mapper.objectFieldLookup();
+        RootObjectMapper root = mapper.root();
+        ObjectMapper host = mapper.objectMappers().get("host");
+        ObjectMapper os = mapper.objectMappers().get("host.os");
+        ObjectMapper tags = mapper.objectMappers().get("tags");
+
+        assertThat(lookup.getMapper(root, "message"), sameInstance(root.getMapper("message")));
+        assertThat(lookup.getMapper(root, "host"), sameInstance(host));
+        assertThat(lookup.getMapper(root, "host.name"), sameInstance(host.getMapper("name")));
+        assertThat(lookup.getMapper(root, "host.os.version"), sameInstance(os.getMapper("version")));
+        assertThat(lookup.getMapper(host, "os.version"), sameInstance(os.getMapper("version")));
+        assertThat(lookup.getMapper(os, "version"), sameInstance(os.getMapper("version")));
+        assertThat(lookup.getMapper(root, "tags"), sameInstance(tags));
+        assertThat(lookup.getMapper(tags, "value"), sameInstance(tags.getMapper("value")));
+
+        // dots through nested objects are left to the document parser, which rejects them
+        assertThat(lookup.getMapper(root, "tags.value"), nullValue());
+        assertThat(lookup.getMapper(root, "unknown"), nullValue());
+        assertThat(lookup.getMapper(root, "host."), nullValue());
+        assertThat(lookup.getMapper(root, "name"), nullValue());
+    }
+
+    public void testParseMappedAndDynamicFields() throws Exception {
+        DocumentMapper mapper = createMapper();
+        BytesReference bytes = BytesReference.bytes(XContentFactory.jsonBuilder()
+            .startObject()
+                .field("message", "hello world")
+                .field("host.name", "server-1")
+                .startObject("host")
+                    .field("os.version", "10")
+                    .field("ip", "10.0.0.1")
+                .endObject()
+            .endObject());
+        ParsedDocument doc = mapper.parse(SourceToParse.source("test", "type", "1", bytes, XContentType.JSON));
+        assertThat(doc.rootDoc().getField("message").stringValue(), equalTo("hello world"));
+        assertNotNull(doc.rootDoc().getField("host.name"));
+        assertNotNull(doc.rootDoc().getField("host.os.version"));
+        assertNotNull(doc.rootDoc().getField("host.ip"));
+        ObjectMapper hostUpdate = (ObjectMapper) doc.dynamicMappingsUpdate().root().getMapper("host");
+        assertNotNull(hostUpdate.getMapper("ip"));
+        assertThat(hostUpdate.getMapper("name"), nullValue());
+    }
+}
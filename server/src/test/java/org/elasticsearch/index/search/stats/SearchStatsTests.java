@@ -19,11 +19,19 @@
 
 package org.elasticsearch.index.search.stats;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.metrics.HistogramMetric;
+import org.elasticsearch.common.metrics.LatencyHistogram;
 import org.elasticsearch.index.search.stats.SearchStats.Stats;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class SearchStatsTests extends ESTestCase {
 
@@ -52,6 +60,40 @@ public class SearchStatsTests extends ESTestCase {
         assertStats(groupStats1.get("group1"), 3);
     }
 
+    public void testSerializationLatencies() throws IOException {
+        HistogramMetric queryLatency = new HistogramMetric();
+        HistogramMetric fetchLatency = new HistogramMetric();
+        for (int i = 0; i < randomIntBetween(1, 100); i++) {
+            queryLatency.inc(randomLongBetween(0, TimeUnit.SECONDS.toNanos(10)));
+            fetchLatency.inc(randomLongBetween(0, TimeUnit.SECONDS.toNanos(10)));
+        }
+        Stats stats = new Stats(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, queryLatency.snapshot(), fetchLatency.snapshot());
+
+        Stats read = copy(stats, Version.CURRENT);
+        assertStats(read, 1);
+        assertEquals(stats.getQueryLatency(), read.getQueryLatency());
+        assertEquals(stats.getFetchLatency(), read.getFetchLatency());
+
+        // older nodes don't know about the latencies
+        Version version = VersionUtils.randomVersionBetween(random(), Version.V_6_0_0,
+            VersionUtils.getPreviousVersion(Version.V_7_0_0_alpha1));
+        read = copy(stats, version);
+        assertStats(read, 1);
+        assertEquals(new LatencyHistogram(), read.getQueryLatency());
+        assertEquals(new LatencyHistogram(), read.getFetchLatency());
+    }
+
+    private static Stats copy(Stats stats, Version version) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(version);
+            stats.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                in.setVersion(version);
+                return Stats.readStats(in);
+            }
+        }
+    }
+
     private static void assertStats(Stats stats, long equalTo) {
         assertEquals(equalTo, stats.getQueryCount());
         assertEquals(equalTo, stats.getQueryTimeInMillis());
@@ -0,0 +1,83 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.metrics.HistogramMetric;
+import org.elasticsearch.common.metrics.LatencyHistogram;
+import org.elasticsearch.index.shard.IndexingStats.Stats;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class IndexingStatsTests extends ESTestCase {
+
+    public void testSerializationLatencies() throws IOException {
+        HistogramMetric indexLatency = new HistogramMetric();
+        HistogramMetric deleteLatency = new HistogramMetric();
+        for (int i = 0; i < randomIntBetween(1, 100); i++) {
+            indexLatency.inc(randomLongBetween(0, TimeUnit.SECONDS.toNanos(10)));
+            deleteLatency.inc(randomLongBetween(0, TimeUnit.SECONDS.toNanos(10)));
+        }
+        Stats stats = new Stats(1, 2, 3, 4, 5, 6, 7, 8, true, 9, indexLatency.snapshot(), deleteLatency.snapshot(), 10, 11);
+
+        Stats read = copy(stats, Version.CURRENT);
+        assertStats(read);
+        assertEquals(stats.getIndexLatency(), read.getIndexLatency());
+        assertEquals(stats.getDeleteLatency(), read.getDeleteLatency());
+        assertEquals(10, read.getAnalysisCacheHitCount());
+        assertEquals(11, read.getAnalysisCacheMissCount());
+
+        // older nodes don't know about the latencies
+        Version version = VersionUtils.randomVersionBetween(random(), Version.V_6_0_0,
+            VersionUtils.getPreviousVersion(Version.V_7_0_0_alpha1));
+        read = copy(stats, version);
+        assertStats(read);
+        assertEquals(new LatencyHistogram(), read.getIndexLatency());
+        assertEquals(new LatencyHistogram(), read.getDeleteLatency());
+        assertEquals(0, read.getAnalysisCacheHitCount());
+        assertEquals(0, read.getAnalysisCacheMissCount());
+    }
+
+    private static Stats copy(Stats stats, Version version) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(version);
+            stats.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                in.setVersion(version);
+                return Stats.readStats(in);
+            }
+        }
+    }
+
+    private static void assertStats(Stats stats) {
+        assertEquals(1, stats.getIndexCount());
+        assertEquals(4, stats.getIndexFailedCount());
+        assertEquals(3, stats.getIndexCurrent());
+        assertEquals(5, stats.getDeleteCount());
+        assertEquals(7, stats.getDeleteCurrent());
+        assertEquals(8, stats.getNoopUpdateCount());
+        assertTrue(stats.isThrottled());
+    }
+}
@@ -30,8 +30,8 @@ import java.util.Map;
 public class IngestStatsTests extends ESTestCase {
 
     public void testSerialization() throws IOException {
-        IngestStats.Stats total = new IngestStats.Stats(5, 10, 20, 30);
-        IngestStats.Stats foo = new IngestStats.Stats(50, 100, 200, 300);
+        IngestStats.Stats total = new IngestStats.Stats(5, 10, 15, 20, 30);
+        IngestStats.Stats foo = new IngestStats.Stats(50, 100, 150, 200, 300);
         IngestStats ingestStats = new IngestStats(total, Collections.singletonMap("foo", foo));
         IngestStats serialize = serialize(ingestStats);
         assertNotSame(serialize, ingestStats);
@@ -39,6 +39,7 @@ public class IngestStatsTests extends ESTestCase {
         assertEquals(total.getIngestCount(), serialize.getTotalStats().getIngestCount());
         assertEquals(total.getIngestFailedCount(), serialize.getTotalStats().getIngestFailedCount());
         assertEquals(total.getIngestTimeInMillis(), serialize.getTotalStats().getIngestTimeInMillis());
+        assertEquals(total.getIngestQueueTimeInMillis(), serialize.getTotalStats().getIngestQueueTimeInMillis());
         assertEquals(total.getIngestCurrent(), serialize.getTotalStats().getIngestCurrent());
 
         assertEquals(ingestStats.getStatsPerPipeline().size(), 1);
@@ -56,6 +57,7 @@ public class IngestStatsTests extends ESTestCase {
         assertEquals(leftStats.getIngestCount(), rightStats.getIngestCount());
         assertEquals(leftStats.getIngestFailedCount(), rightStats.getIngestFailedCount());
         assertEquals(leftStats.getIngestTimeInMillis(), rightStats.getIngestTimeInMillis());
+        assertEquals(leftStats.getIngestQueueTimeInMillis(), rightStats.getIngestQueueTimeInMillis());
         assertEquals(leftStats.getIngestCurrent(), rightStats.getIngestCurrent());
     }
 
@@ -28,7 +28,9 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.test.ESTestCase;
@@ -38,12 +40,18 @@ import org.junit.Before;
 import org.mockito.ArgumentMatcher;
 import org.mockito.invocation.InvocationOnMock;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -76,16 +84,19 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         ThreadPool threadPool = mock(ThreadPool.class);
         final ExecutorService executorService = EsExecutors.newDirectExecutorService();
         when(threadPool.executor(anyString())).thenReturn(executorService);
-        executionService = new PipelineExecutionService(store, threadPool);
+        Settings settings = Settings.builder()
+            .put(PipelineExecutionService.BULK_CONCURRENCY_SETTING.getKey(), randomIntBetween(1, 4))
+            .build();
+        executionService = new PipelineExecutionService(settings, store, threadPool);
     }
 
     public void testExecuteIndexPipelineDoesNotExist() {
         final IndexRequest indexRequest = new IndexRequest("_index", "_type", "_id").source(Collections.emptyMap()).setPipeline("_id");
 
         final SetOnce<Boolean> failure = new SetOnce<>();
-        final BiConsumer<IndexRequest, Exception> failureHandler = (request, e) -> {
+        final BiConsumer<Integer, Exception> failureHandler = (slot, e) -> {
             failure.set(true);
-            assertThat(request, sameInstance(indexRequest));
+            assertThat(slot, equalTo(0));
             assertThat(e, instanceOf(IllegalArgumentException.class));
             assertThat(e.getMessage(), equalTo("pipeline with id [_id] does not exist"));
         };
@@ -115,7 +126,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
 
         final SetOnce<Boolean> failure = new SetOnce<>();
         final IndexRequest indexRequest = new IndexRequest("_index", "_type", "_id").source(Collections.emptyMap()).setPipeline("_id");
-        final BiConsumer<IndexRequest, Exception> failureHandler = (request, e) -> {
+        final BiConsumer<Integer, Exception> failureHandler = (slot, e) -> {
             assertThat(e.getCause(), instanceOf(IllegalArgumentException.class));
             assertThat(e.getCause().getCause(), instanceOf(IllegalStateException.class));
             assertThat(e.getCause().getCause().getMessage(), equalTo("error"));
@@ -142,18 +153,12 @@ public class PipelineExecutionServiceTests extends ESTestCase {
                 new IndexRequest("_index", "_type", "_id").source(Collections.emptyMap()).setPipeline("does_not_exist");
         bulkRequest.add(indexRequest2);
         @SuppressWarnings("unchecked")
-        BiConsumer<IndexRequest, Exception> failureHandler = mock(BiConsumer.class);
+        BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(bulkRequest.requests(), failureHandler, completionHandler);
         verify(failureHandler, times(1)).accept(
-            argThat(new CustomTypeSafeMatcher<IndexRequest>("failure handler was not called with the expected arguments") {
-                @Override
-                protected boolean matchesSafely(IndexRequest item) {
-                    return item == indexRequest2;
-                }
-
-            }),
+            eq(1),
             argThat(new CustomTypeSafeMatcher<IllegalArgumentException>("failure handler was not called with the expected arguments") {
                 @Override
                 protected boolean matchesSafely(IllegalArgumentException iae) {
@@ -169,7 +174,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         when(store.get("_id")).thenReturn(new Pipeline("_id", "_description", version, processor));
         final IndexRequest indexRequest = new IndexRequest("_index", "_type", "_id").source(Collections.emptyMap()).setPipeline("_id");
         @SuppressWarnings("unchecked")
-        final BiConsumer<IndexRequest, Exception> failureHandler = mock(BiConsumer.class);
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         final Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(Collections.singletonList(indexRequest), failureHandler, completionHandler);
@@ -184,7 +189,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
 
         final IndexRequest indexRequest = new IndexRequest("_index", "_type", "_id").source(Collections.emptyMap()).setPipeline("_id");
         @SuppressWarnings("unchecked")
-        final BiConsumer<IndexRequest, Exception> failureHandler = mock(BiConsumer.class);
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         final Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(Collections.singletonList(indexRequest), failureHandler, completionHandler);
@@ -215,7 +220,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
 
         final IndexRequest indexRequest = new IndexRequest("_index", "_type", "_id").source(Collections.emptyMap()).setPipeline("_id");
         @SuppressWarnings("unchecked")
-        final BiConsumer<IndexRequest, Exception> failureHandler = mock(BiConsumer.class);
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         final Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(Collections.singletonList(indexRequest), failureHandler, completionHandler);
@@ -239,12 +244,12 @@ public class PipelineExecutionServiceTests extends ESTestCase {
                 .when(processor)
                 .execute(eqIndexTypeId(indexRequest.version(), indexRequest.versionType(), Collections.emptyMap()));
         @SuppressWarnings("unchecked")
-        final BiConsumer<IndexRequest, Exception> failureHandler = mock(BiConsumer.class);
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         final Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(Collections.singletonList(indexRequest), failureHandler, completionHandler);
         verify(processor).execute(eqIndexTypeId(indexRequest.version(), indexRequest.versionType(), Collections.emptyMap()));
-        verify(failureHandler, times(1)).accept(eq(indexRequest), any(RuntimeException.class));
+        verify(failureHandler, times(1)).accept(eq(0), any(RuntimeException.class));
         verify(completionHandler, times(1)).accept(null);
     }
 
@@ -259,11 +264,11 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         final IndexRequest indexRequest = new IndexRequest("_index", "_type", "_id").source(Collections.emptyMap()).setPipeline("_id");
         doThrow(new RuntimeException()).when(processor).execute(eqIndexTypeId(Collections.emptyMap()));
         @SuppressWarnings("unchecked")
-        final BiConsumer<IndexRequest, Exception> failureHandler = mock(BiConsumer.class);
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         final Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(Collections.singletonList(indexRequest), failureHandler, completionHandler);
-        verify(failureHandler, never()).accept(eq(indexRequest), any(ElasticsearchException.class));
+        verify(failureHandler, never()).accept(eq(0), any(ElasticsearchException.class));
         verify(completionHandler, times(1)).accept(null);
     }
 
@@ -281,12 +286,12 @@ public class PipelineExecutionServiceTests extends ESTestCase {
                 .when(onFailureProcessor)
                 .execute(eqIndexTypeId(indexRequest.version(), indexRequest.versionType(), Collections.emptyMap()));
         @SuppressWarnings("unchecked")
-        final BiConsumer<IndexRequest, Exception> failureHandler = mock(BiConsumer.class);
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         final Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(Collections.singletonList(indexRequest), failureHandler, completionHandler);
         verify(processor).execute(eqIndexTypeId(indexRequest.version(), indexRequest.versionType(), Collections.emptyMap()));
-        verify(failureHandler, times(1)).accept(eq(indexRequest), any(RuntimeException.class));
+        verify(failureHandler, times(1)).accept(eq(0), any(RuntimeException.class));
         verify(completionHandler, times(1)).accept(null);
     }
 
@@ -312,12 +317,12 @@ public class PipelineExecutionServiceTests extends ESTestCase {
                 .when(processor)
                 .execute(eqIndexTypeId(indexRequest.version(), indexRequest.versionType(), Collections.emptyMap()));
         @SuppressWarnings("unchecked")
-        final BiConsumer<IndexRequest, Exception> failureHandler = mock(BiConsumer.class);
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         final Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(Collections.singletonList(indexRequest), failureHandler, completionHandler);
         verify(processor).execute(eqIndexTypeId(indexRequest.version(), indexRequest.versionType(), Collections.emptyMap()));
-        verify(failureHandler, times(1)).accept(eq(indexRequest), any(RuntimeException.class));
+        verify(failureHandler, times(1)).accept(eq(0), any(RuntimeException.class));
         verify(completionHandler, times(1)).accept(null);
     }
 
@@ -326,7 +331,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         String pipelineId = "_id";
 
         int numRequest = scaledRandomIntBetween(8, 64);
-        int numIndexRequests = 0;
+        List<Integer> indexRequestSlots = new ArrayList<>();
         for (int i = 0; i < numRequest; i++) {
             DocWriteRequest request;
             if (randomBoolean()) {
@@ -339,7 +344,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
                 IndexRequest indexRequest = new IndexRequest("_index", "_type", "_id").setPipeline(pipelineId);
                 indexRequest.source(Requests.INDEX_CONTENT_TYPE, "field1", "value1");
                 request = indexRequest;
-                numIndexRequests++;
+                indexRequestSlots.add(i);
             }
             bulkRequest.add(request);
         }
@@ -350,13 +355,17 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         doThrow(error).when(processor).execute(any());
         when(store.get(pipelineId)).thenReturn(new Pipeline(pipelineId, null, version, processor));
 
-        @SuppressWarnings("unchecked")
-        BiConsumer<IndexRequest, Exception> requestItemErrorHandler = mock(BiConsumer.class);
+        List<Integer> failedSlots = new ArrayList<>();
+        BiConsumer<Integer, Exception> requestItemErrorHandler = (slot, e) -> {
+            assertThat(e, sameInstance(error));
+            failedSlots.add(slot);
+        };
         @SuppressWarnings("unchecked")
         Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(bulkRequest.requests(), requestItemErrorHandler, completionHandler);
 
-        verify(requestItemErrorHandler, times(numIndexRequests)).accept(any(IndexRequest.class), eq(error));
+        // failures are reported in the order of the items in the bulk, whatever the batch they were executed in
+        assertThat(failedSlots, equalTo(indexRequestSlots));
         verify(completionHandler, times(1)).accept(null);
     }
 
@@ -374,7 +383,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         when(store.get(pipelineId)).thenReturn(new Pipeline(pipelineId, null, version, new CompoundProcessor()));
 
         @SuppressWarnings("unchecked")
-        BiConsumer<IndexRequest, Exception> requestItemErrorHandler = mock(BiConsumer.class);
+        BiConsumer<Integer, Exception> requestItemErrorHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         Consumer<Exception> completionHandler = mock(Consumer.class);
         executionService.executeBulkRequest(bulkRequest.requests(), requestItemErrorHandler, completionHandler);
@@ -383,6 +392,69 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         verify(completionHandler, times(1)).accept(null);
     }
 
+    public void testBulkRequestExecutionInParallelBatches() throws Exception {
+        BulkRequest bulkRequest = new BulkRequest();
+        String pipelineId = "_id";
+
+        int numRequest = scaledRandomIntBetween(8, 64);
+        List<Integer> expectedFailedSlots = new ArrayList<>();
+        for (int i = 0; i < numRequest; i++) {
+            boolean fail = randomBoolean();
+            IndexRequest indexRequest = new IndexRequest("_index", "_type", "_id").setPipeline(pipelineId);
+            indexRequest.source(Requests.INDEX_CONTENT_TYPE, "field1", "value1", "fail", fail);
+            bulkRequest.add(indexRequest);
+            if (fail) {
+                expectedFailedSlots.add(i);
+            }
+        }
+
+        when(store.get(pipelineId)).thenReturn(new Pipeline(pipelineId, null, version, new CompoundProcessor(new AbstractProcessor("mock") {
+            @Override
+            public void execute(IngestDocument ingestDocument) {
+                if (ingestDocument.getFieldValue("fail", Boolean.class)) {
+                    throw new IllegalStateException("error");
+                }
+                ingestDocument.setFieldValue("processed", true);
+            }
+
+            @Override
+            public String getType() {
+                return null;
+            }
+        })));
+
+        ThreadPool threadPool = mock(ThreadPool.class);
+        ExecutorService executorService = EsExecutors.newFixed(getTestName(), 4, -1, EsExecutors.daemonThreadFactory("test"),
+            new ThreadContext(Settings.EMPTY));
+        when(threadPool.executor(anyString())).thenReturn(executorService);
+        try {
+            Settings settings = Settings.builder().put(PipelineExecutionService.BULK_CONCURRENCY_SETTING.getKey(), 4).build();
+            PipelineExecutionService parallelExecutionService = new PipelineExecutionService(settings, store, threadPool);
+
+            List<Integer> failedSlots = new ArrayList<>();
+            AtomicReference<Exception> completionException = new AtomicReference<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            parallelExecutionService.executeBulkRequest(bulkRequest.requests(), (slot, e) -> failedSlots.add(slot), e -> {
+                completionException.set(e);
+                latch.countDown();
+            });
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+            assertNull(completionException.get());
+            assertThat(failedSlots, equalTo(expectedFailedSlots));
+            for (int i = 0; i < numRequest; i++) {
+                IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(i);
+                if (expectedFailedSlots.contains(i) == false) {
+                    assertNull(indexRequest.getPipeline());
+                    assertThat(indexRequest.sourceAsMap().get("processed"), equalTo(true));
+                }
+            }
+            assertThat(parallelExecutionService.stats().getTotalStats().getIngestCount(), equalTo((long) numRequest));
+        } finally {
+            terminate(executorService);
+        }
+    }
+
     public void testStats() {
         final IngestStats initialStats = executionService.stats();
         assertThat(initialStats.getStatsPerPipeline().size(), equalTo(0));
@@ -390,6 +462,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         assertThat(initialStats.getTotalStats().getIngestCurrent(), equalTo(0L));
         assertThat(initialStats.getTotalStats().getIngestFailedCount(), equalTo(0L));
         assertThat(initialStats.getTotalStats().getIngestTimeInMillis(), equalTo(0L));
+        assertThat(initialStats.getTotalStats().getIngestQueueTimeInMillis(), equalTo(0L));
 
         when(store.get("_id1")).thenReturn(new Pipeline("_id1", null, version, new CompoundProcessor(mock(Processor.class))));
         when(store.get("_id2")).thenReturn(new Pipeline("_id2", null, null, new CompoundProcessor(mock(Processor.class))));
@@ -400,7 +473,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         executionService.updatePipelineStats(new IngestMetadata(configurationMap));
 
         @SuppressWarnings("unchecked")
-        final BiConsumer<IndexRequest, Exception> failureHandler = mock(BiConsumer.class);
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
         @SuppressWarnings("unchecked")
         final Consumer<Exception> completionHandler = mock(Consumer.class);
 
@@ -422,6 +495,74 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         assertThat(afterSecondRequestStats.getTotalStats().getIngestCount(), equalTo(2L));
     }
 
+    public void testQueueTimeIsRecordedOncePerBatch() {
+        // every task waits 10ms in the queue of the write thread pool, running the pipelines takes no time
+        final AtomicLong relativeTimeInNanos = new AtomicLong();
+        final long queueTimeInMillis = 10;
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.executor(anyString())).thenReturn(new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable command) {
+                relativeTimeInNanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(queueTimeInMillis));
+                command.run();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return false;
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return false;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+                return true;
+            }
+        });
+        final int concurrency = randomIntBetween(1, 4);
+        Settings settings = Settings.builder().put(PipelineExecutionService.BULK_CONCURRENCY_SETTING.getKey(), concurrency).build();
+        PipelineExecutionService executionService = new PipelineExecutionService(settings, store, threadPool, relativeTimeInNanos::get);
+        when(store.get("_id1")).thenReturn(new Pipeline("_id1", null, version, new CompoundProcessor(mock(Processor.class))));
+        when(store.get("_id2")).thenReturn(new Pipeline("_id2", null, version, new CompoundProcessor(mock(Processor.class))));
+        final Map<String, PipelineConfiguration> configurationMap = new HashMap<>();
+        configurationMap.put("_id1", new PipelineConfiguration("_id1", new BytesArray("{}"), XContentType.JSON));
+        configurationMap.put("_id2", new PipelineConfiguration("_id2", new BytesArray("{}"), XContentType.JSON));
+        executionService.updatePipelineStats(new IngestMetadata(configurationMap));
+
+        // the documents of the first pipeline come first, so only the last batch can contain documents of the second pipeline
+        final int numRequest = concurrency * randomIntBetween(2, 8);
+        final List<DocWriteRequest> requests = new ArrayList<>();
+        for (int i = 0; i < numRequest; i++) {
+            requests.add(new IndexRequest("_index", "_type", "_id").source(Collections.emptyMap())
+                .setPipeline(i < numRequest - 1 ? "_id1" : "_id2"));
+        }
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final Consumer<Exception> completionHandler = mock(Consumer.class);
+        executionService.executeBulkRequest(requests, failureHandler, completionHandler);
+        verify(failureHandler, never()).accept(any(), any());
+        verify(completionHandler, times(1)).accept(null);
+
+        final IngestStats stats = executionService.stats();
+        assertThat(stats.getTotalStats().getIngestCount(), equalTo((long) numRequest));
+        assertThat(stats.getTotalStats().getIngestQueueTimeInMillis(), equalTo(concurrency * queueTimeInMillis));
+        assertThat(stats.getStatsPerPipeline().get("_id1").getIngestQueueTimeInMillis(), equalTo(concurrency * queueTimeInMillis));
+        assertThat(stats.getStatsPerPipeline().get("_id2").getIngestQueueTimeInMillis(), equalTo(queueTimeInMillis));
+    }
+
     // issue: https://github.com/elastic/elasticsearch/issues/18126
     public void testUpdatingStatsWhenRemovingPipelineWorks() {
         Map<String, PipelineConfiguration> configurationMap = new HashMap<>();
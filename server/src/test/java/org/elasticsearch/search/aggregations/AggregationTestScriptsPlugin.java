@@ -91,6 +91,13 @@ public class AggregationTestScriptsPlugin extends MockScriptPlugin {
             return doc.get("values");
         });
 
+        // returns the value of the document out of order and with duplicates: [value + 1, value, value + 1, value, value]
+        scripts.put("repeated doc['value'].value", vars -> {
+            Map<?, ?> doc = (Map) vars.get("doc");
+            long value = ((ScriptDocValues.Longs) doc.get("value")).getValue();
+            return new long[] { value + 1, value, value + 1, value, value };
+        });
+
         scripts.put(DECREMENT_ALL_VALUES.getIdOrCode(), vars -> {
             int dec = (int) vars.get("dec");
             Map<?, ?> doc = (Map) vars.get("doc");
@@ -18,6 +18,7 @@
  */
 package org.elasticsearch.search.aggregations.metrics;
 
+import org.HdrHistogram.DoubleHistogram;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
@@ -438,6 +439,47 @@ public class HDRPercentilesIT extends AbstractNumericTestCase {
         assertConsistent(pcts, percentiles, minValues, maxValues, sigDigits);
     }
 
+    /**
+     * The script values are sorted and runs of equal values recorded at once with their count, which must not change the
+     * percentiles compared to recording every value on its own.
+     */
+    public void testScriptRepeatedValues() throws Exception {
+        final double[] pcts = randomPercentiles();
+        int sigDigits = randomSignificantDigits();
+        Script script = new Script(ScriptType.INLINE, AggregationTestScriptsPlugin.NAME, "repeated doc['value'].value", emptyMap());
+
+        SearchResponse searchResponse = client()
+                .prepareSearch("idx")
+                .setQuery(matchAllQuery())
+                .addAggregation(
+                        percentiles("percentiles")
+                                .numberOfSignificantValueDigits(sigDigits)
+                                .method(PercentilesMethod.HDR)
+                                .script(script)
+                                .percentiles(pcts))
+                .execute().actionGet();
+
+        assertHitCount(searchResponse, 10);
+
+        DoubleHistogram expected = new DoubleHistogram(sigDigits);
+        expected.setAutoResize(true);
+        for (long value = minValue; value <= maxValue; value++) {
+            for (int i = 0; i < 3; i++) {
+                expected.recordValue(value);
+            }
+            for (int i = 0; i < 2; i++) {
+                expected.recordValue(value + 1);
+            }
+        }
+
+        final Percentiles percentiles = searchResponse.getAggregations().get("percentiles");
+        for (Percentile percentile : percentiles) {
+            // the shard histograms may be merged at a different resolution than the expected one
+            double value = expected.getValueAtPercentile(percentile.getPercent());
+            assertThat(percentile.getValue(), closeTo(value, value * Math.pow(10, -sigDigits)));
+        }
+    }
+
     @Override
     public void testScriptMultiValuedWithParams() throws Exception {
         Script script = AggregationTestScriptsPlugin.DECREMENT_ALL_VALUES;
@@ -35,6 +35,7 @@ import org.elasticsearch.search.aggregations.metrics.percentiles.Percentile;
 import org.elasticsearch.search.aggregations.metrics.percentiles.Percentiles;
 import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesAggregationBuilder;
 import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesMethod;
+import org.elasticsearch.search.aggregations.metrics.percentiles.tdigest.TDigestState;
 import org.elasticsearch.search.aggregations.BucketOrder;
 
 import java.util.Arrays;
@@ -55,6 +56,7 @@ import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
@@ -392,6 +394,41 @@ public class TDigestPercentilesIT extends AbstractNumericTestCase {
         assertConsistent(pcts, percentiles, minValues, maxValues);
     }
 
+    /**
+     * The script values are sorted and runs of equal values added at once with their count. The digest may end up with
+     * other centroids than when adding every value on its own, but the percentiles must stay close.
+     */
+    public void testScriptRepeatedValues() throws Exception {
+        final double[] pcts = randomPercentiles();
+        Script script = new Script(ScriptType.INLINE, AggregationTestScriptsPlugin.NAME, "repeated doc['value'].value", emptyMap());
+
+        SearchResponse searchResponse = client().prepareSearch("idx")
+                .setQuery(matchAllQuery())
+                .addAggregation(
+                        percentiles("percentiles")
+                                    .script(script)
+                                    .percentiles(pcts))
+                .execute().actionGet();
+
+        assertHitCount(searchResponse, 10);
+
+        TDigestState expected = new TDigestState(100);
+        for (long value = minValue; value <= maxValue; value++) {
+            for (int i = 0; i < 3; i++) {
+                expected.add(value);
+            }
+            for (int i = 0; i < 2; i++) {
+                expected.add(value + 1);
+            }
+        }
+
+        final Percentiles percentiles = searchResponse.getAggregations().get("percentiles");
+        final double tolerance = 0.05 * maxValue;
+        for (Percentile percentile : percentiles) {
+            assertThat(percentile.getValue(), closeTo(expected.quantile(percentile.getPercent() / 100), tolerance));
+        }
+    }
+
     @Override
     public void testScriptMultiValuedWithParams() throws Exception {
         Script script = AggregationTestScriptsPlugin.DECREMENT_ALL_VALUES;
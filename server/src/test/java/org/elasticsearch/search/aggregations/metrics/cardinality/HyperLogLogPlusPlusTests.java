@@ -21,9 +21,13 @@ package org.elasticsearch.search.aggregations.metrics.cardinality;
 
 import com.carrotsearch.hppc.BitMixer;
 import com.carrotsearch.hppc.IntHashSet;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.test.ESTestCase;
 
+import java.io.IOException;
+
 import static org.elasticsearch.search.aggregations.metrics.cardinality.HyperLogLogPlusPlus.MAX_PRECISION;
 import static org.elasticsearch.search.aggregations.metrics.cardinality.HyperLogLogPlusPlus.MIN_PRECISION;
 import static org.hamcrest.Matchers.closeTo;
@@ -101,6 +105,61 @@ public class HyperLogLogPlusPlusTests extends ESTestCase {
         }
     }
 
+    public void testMergeHllLowPrecision() {
+        // the registers of a bucket fit in a single page of the big arrays
+        assertMergeHll(randomIntBetween(MIN_PRECISION, 14));
+    }
+
+    public void testMergeHllHighPrecision() {
+        // the registers of a bucket span several pages of the big arrays
+        assertMergeHll(randomIntBetween(15, MAX_PRECISION));
+    }
+
+    private void assertMergeHll(int p) {
+        final HyperLogLogPlusPlus single = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 1);
+        final HyperLogLogPlusPlus first = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 3);
+        final HyperLogLogPlusPlus second = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 3);
+        // not the first bucket, so that the merged registers do not start at the beginning of the arrays
+        final long firstBucket = randomIntBetween(1, 2);
+        final long secondBucket = randomIntBetween(1, 2);
+        single.upgradeToHll(0);
+        first.upgradeToHll(firstBucket);
+        second.upgradeToHll(secondBucket);
+        final int numValues = randomIntBetween(1, 100000);
+        for (int i = 0; i < numValues; ++i) {
+            final long hash = BitMixer.mix64(randomInt());
+            single.collect(0, hash);
+            if (randomBoolean()) {
+                first.collect(firstBucket, hash);
+            } else {
+                second.collect(secondBucket, hash);
+            }
+        }
+        final HyperLogLogPlusPlus merged = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 1);
+        merged.merge(0, first, firstBucket);
+        merged.merge(0, second, secondBucket);
+        assertTrue(single.equals(0, merged));
+        assertEquals(single.cardinality(0), merged.cardinality(0));
+    }
+
+    public void testSerializeHll() throws IOException {
+        final int p = randomIntBetween(MIN_PRECISION, MAX_PRECISION);
+        final HyperLogLogPlusPlus counts = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 1);
+        final int numValues = randomIntBetween(1, 10000);
+        for (int i = 0; i < numValues; ++i) {
+            counts.collect(0, BitMixer.mix64(randomInt()));
+        }
+        counts.upgradeToHll(0);
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            counts.writeTo(0, out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                final HyperLogLogPlusPlus read = HyperLogLogPlusPlus.readFrom(in, BigArrays.NON_RECYCLING_INSTANCE);
+                assertTrue(counts.equals(0, read));
+                assertEquals(counts.cardinality(0), read.cardinality(0));
+            }
+        }
+    }
+
     public void testFakeHashes() {
         // hashes with lots of leading zeros trigger different paths in the code that we try to go through here
         final int p = randomIntBetween(MIN_PRECISION, MAX_PRECISION);
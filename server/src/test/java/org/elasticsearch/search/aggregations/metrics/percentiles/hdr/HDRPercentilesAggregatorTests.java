@@ -19,11 +19,13 @@
 
 package org.elasticsearch.search.aggregations.metrics.percentiles.hdr;
 
+import org.HdrHistogram.DoubleHistogram;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.IndexSearcher;
@@ -38,6 +40,9 @@ import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesAggr
 import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesMethod;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
 
 import static java.util.Arrays.asList;
@@ -112,6 +117,38 @@ public class HDRPercentilesAggregatorTests extends AggregatorTestCase {
         });
     }
 
+    /**
+     * Runs of equal values of a document are recorded at once with their count, which must build the same histogram as
+     * recording every value on its own.
+     */
+    public void testRepeatedValues() throws IOException {
+        final List<Long> values = new ArrayList<>();
+        final int numValues = randomIntBetween(10, 500);
+        for (int i = 0; i < numValues; i++) {
+            values.add((long) randomIntBetween(1, 50));
+        }
+        // doc values are returned sorted
+        Collections.sort(values);
+        final DoubleHistogram expected = new DoubleHistogram(3);
+        expected.setAutoResize(true);
+        for (long value : values) {
+            expected.recordValue(value);
+        }
+
+        testCase(new MatchAllDocsQuery(), iw -> {
+            List<IndexableField> doc = new ArrayList<>();
+            for (long value : values) {
+                doc.add(new SortedNumericDocValuesField("number", value));
+            }
+            iw.addDocument(doc);
+        }, hdr -> {
+            assertEquals(expected.getTotalCount(), hdr.state.getTotalCount());
+            for (double percent : new double[] { 0, 1, 25, 50, 75, 99, 100, randomDoubleBetween(0, 100, true) }) {
+                assertEquals(expected.getValueAtPercentile(percent), hdr.percentile(percent), 0d);
+            }
+        });
+    }
+
     private void testCase(Query query, CheckedConsumer<RandomIndexWriter, IOException> buildIndex,
                           Consumer<InternalHDRPercentiles> verify) throws IOException {
         try (Directory directory = newDirectory()) {
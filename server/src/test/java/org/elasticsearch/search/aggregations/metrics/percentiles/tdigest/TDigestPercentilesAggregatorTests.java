@@ -24,6 +24,7 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.IndexSearcher;
@@ -38,6 +39,9 @@ import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesAggr
 import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesMethod;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
 
 import static java.util.Arrays.asList;
@@ -133,6 +137,38 @@ public class TDigestPercentilesAggregatorTests extends AggregatorTestCase {
         });
     }
 
+    /**
+     * Runs of equal values of a document are added at once with their count. The digest is not guaranteed to end up with
+     * the same centroids as when adding every value on its own, but the percentiles must stay close.
+     */
+    public void testRepeatedValues() throws IOException {
+        final List<Long> values = new ArrayList<>();
+        final int numValues = randomIntBetween(10, 500);
+        for (int i = 0; i < numValues; i++) {
+            values.add((long) randomIntBetween(0, 50));
+        }
+        // doc values are returned sorted
+        Collections.sort(values);
+        final TDigestState expected = new TDigestState(100);
+        for (long value : values) {
+            expected.add(value);
+        }
+
+        testCase(new MatchAllDocsQuery(), iw -> {
+            List<IndexableField> doc = new ArrayList<>();
+            for (long value : values) {
+                doc.add(new SortedNumericDocValuesField("number", value));
+            }
+            iw.addDocument(doc);
+        }, tdigest -> {
+            assertEquals(expected.size(), tdigest.state.size());
+            final double tolerance = 0.05 * (values.get(values.size() - 1) - values.get(0));
+            for (double percent : new double[] { 1, 25, 50, 75, 99, randomDoubleBetween(0, 100, true) }) {
+                assertEquals(expected.quantile(percent / 100), tdigest.percentile(percent), tolerance);
+            }
+        });
+    }
+
     private void testCase(Query query, CheckedConsumer<RandomIndexWriter, IOException> buildIndex,
                           Consumer<InternalTDigestPercentiles> verify) throws IOException {
         try (Directory directory = newDirectory()) {
@@ -110,6 +110,18 @@ public class BucketScriptIT extends ESIntegTestCase {
                 return (value0 + value1 + value2) * (int) vars.get("factor");
             });
 
+            scripts.put("_value0 * 0 / 0", vars -> {
+                double value0 = (double) vars.get("_value0");
+                return value0 * 0 / 0;
+            });
+
+            scripts.put("null", vars -> null);
+
+            scripts.put("_value1 == null ? _value0 : _value1", vars -> {
+                Double value1 = (Double) vars.get("_value1");
+                return value1 == null ? vars.get("_value0") : value1;
+            });
+
             scripts.put("my_script", vars -> {
                 double value0 = (double) vars.get("_value0");
                 double value1 = (double) vars.get("_value1");
@@ -599,4 +611,94 @@ public class BucketScriptIT extends ESIntegTestCase {
             }
         }
     }
+
+    public void testInlineScriptReturningNaN() {
+        SearchResponse response = client()
+                .prepareSearch("idx")
+                .addAggregation(
+                        histogram("histo")
+                                .field(FIELD_1_NAME)
+                                .interval(interval)
+                                .subAggregation(sum("field2Sum").field(FIELD_2_NAME))
+                                .subAggregation(
+                                        bucketScript("seriesArithmetic",
+                                                new Script(ScriptType.INLINE, CustomScriptPlugin.NAME, "_value0 * 0 / 0",
+                                                    Collections.emptyMap()),
+                                                "field2Sum")))
+                .execute().actionGet();
+
+        assertSearchResponse(response);
+
+        Histogram histo = response.getAggregations().get("histo");
+        assertThat(histo, notNullValue());
+        List<? extends Histogram.Bucket> buckets = histo.getBuckets();
+
+        for (int i = 0; i < buckets.size(); ++i) {
+            Histogram.Bucket bucket = buckets.get(i);
+            SimpleValue seriesArithmetic = bucket.getAggregations().get("seriesArithmetic");
+            if (bucket.getDocCount() == 0) {
+                assertThat(seriesArithmetic, nullValue());
+            } else {
+                // a NaN returned by the script is a value, only null leaves the bucket untouched
+                assertThat(seriesArithmetic, notNullValue());
+                assertTrue(Double.isNaN(seriesArithmetic.value()));
+            }
+        }
+    }
+
+    public void testInlineScriptReturningNull() {
+        SearchResponse response = client()
+                .prepareSearch("idx")
+                .addAggregation(
+                        histogram("histo")
+                                .field(FIELD_1_NAME)
+                                .interval(interval)
+                                .subAggregation(sum("field2Sum").field(FIELD_2_NAME))
+                                .subAggregation(
+                                        bucketScript("seriesArithmetic",
+                                                new Script(ScriptType.INLINE, CustomScriptPlugin.NAME, "null", Collections.emptyMap()),
+                                                "field2Sum")))
+                .execute().actionGet();
+
+        assertSearchResponse(response);
+
+        Histogram histo = response.getAggregations().get("histo");
+        assertThat(histo, notNullValue());
+        for (Histogram.Bucket bucket : histo.getBuckets()) {
+            assertThat(bucket.getAggregations().get("field2Sum"), notNullValue());
+            assertThat(bucket.getAggregations().get("seriesArithmetic"), nullValue());
+        }
+    }
+
+    public void testInlineScriptUnresolvedPath() {
+        SearchResponse response = client()
+                .prepareSearch("idx")
+                .addAggregation(
+                        histogram("histo")
+                                .field(FIELD_1_NAME)
+                                .interval(interval)
+                                .subAggregation(sum("field2Sum").field(FIELD_2_NAME))
+                                .subAggregation(
+                                        bucketScript("seriesArithmetic",
+                                                new Script(ScriptType.INLINE, CustomScriptPlugin.NAME,
+                                                    "_value1 == null ? _value0 : _value1", Collections.emptyMap()),
+                                                "field2Sum", "does_not_exist").gapPolicy(GapPolicy.INSERT_ZEROS)))
+                .execute().actionGet();
+
+        assertSearchResponse(response);
+
+        Histogram histo = response.getAggregations().get("histo");
+        assertThat(histo, notNullValue());
+        List<? extends Histogram.Bucket> buckets = histo.getBuckets();
+
+        for (int i = 0; i < buckets.size(); ++i) {
+            Histogram.Bucket bucket = buckets.get(i);
+            Sum field2Sum = bucket.getAggregations().get("field2Sum");
+            assertThat(field2Sum, notNullValue());
+            // the path to the missing aggregation is passed to the script as null rather than NaN
+            SimpleValue seriesArithmetic = bucket.getAggregations().get("seriesArithmetic");
+            assertThat(seriesArithmetic, notNullValue());
+            assertThat(seriesArithmetic.value(), equalTo(field2Sum.getValue()));
+        }
+    }
 }
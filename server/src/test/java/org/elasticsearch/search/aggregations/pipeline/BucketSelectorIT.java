@@ -20,6 +20,7 @@
 package org.elasticsearch.search.aggregations.pipeline;
 
 import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchPhaseExecutionException;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -50,6 +51,7 @@ import static org.elasticsearch.search.aggregations.pipeline.PipelineAggregatorB
 import static org.elasticsearch.search.aggregations.pipeline.PipelineAggregatorBuilders.derivative;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
@@ -126,6 +128,10 @@ public class BucketSelectorIT extends ESIntegTestCase {
                 return (value0 + value1 > 100);
             });
 
+            scripts.put("1", vars -> 1);
+
+            scripts.put("_value1 == null", vars -> vars.get("_value1") == null);
+
             scripts.put("my_script", vars -> {
                 double value0 = (double) vars.get("_value0");
                 double value1 = (double) vars.get("_value1");
@@ -599,4 +605,42 @@ public class BucketSelectorIT extends ESIntegTestCase {
             }
         }
     }
+
+    public void testInlineScriptReturningNumber() {
+        Script script = new Script(ScriptType.INLINE, CustomScriptPlugin.NAME, "1", Collections.emptyMap());
+
+        // only expressions may return a number, 1 for true
+        SearchPhaseExecutionException e = expectThrows(SearchPhaseExecutionException.class,
+                () -> client().prepareSearch("idx")
+                        .addAggregation(histogram("histo").field(FIELD_1_NAME).interval(interval)
+                                .subAggregation(sum("field2Sum").field(FIELD_2_NAME))
+                                .subAggregation(bucketSelector("bucketSelector", script, "field2Sum")))
+                        .execute().actionGet());
+        assertThat(e.getCause().getMessage(),
+                containsString("bucket_selector script for reducer [bucketSelector] must return a boolean"));
+    }
+
+    public void testInlineScriptUnresolvedPath() {
+        Script script = new Script(ScriptType.INLINE, CustomScriptPlugin.NAME, "_value1 == null", Collections.emptyMap());
+
+        SearchResponse response = client().prepareSearch("idx")
+                .addAggregation(histogram("histo").field(FIELD_1_NAME).interval(interval)
+                        .subAggregation(sum("field2Sum").field(FIELD_2_NAME)))
+                .execute().actionGet();
+        assertSearchResponse(response);
+        Histogram histo = response.getAggregations().get("histo");
+        int numBuckets = histo.getBuckets().size();
+
+        response = client().prepareSearch("idx")
+                .addAggregation(histogram("histo").field(FIELD_1_NAME).interval(interval)
+                        .subAggregation(sum("field2Sum").field(FIELD_2_NAME))
+                        .subAggregation(bucketSelector("bucketSelector", script, "field2Sum", "does_not_exist")))
+                .execute().actionGet();
+        assertSearchResponse(response);
+
+        // the path to the missing aggregation is passed to the script as null so every bucket is kept
+        histo = response.getAggregations().get("histo");
+        assertThat(histo, notNullValue());
+        assertThat(histo.getBuckets().size(), equalTo(numBuckets));
+    }
 }
@@ -19,9 +19,12 @@
 
 package org.elasticsearch.threadpool;
 
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.ESTestCase;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 
 public class ThreadPoolTests extends ESTestCase {
 
@@ -59,4 +62,24 @@ public class ThreadPoolTests extends ESTestCase {
             threadPool.close();
         }
     }
+
+    public void testRequestHeaders() throws Exception {
+        TestThreadPool threadPool = new TestThreadPool("test");
+        try {
+            assertThat(threadPool.requestHeaders(), empty());
+        } finally {
+            terminate(threadPool);
+        }
+
+        Settings settings = Settings.builder()
+            .put("thread_pool.write.fair_queue_key_header", "X-Tenant-Id")
+            .put("thread_pool.search.fair_queue_key_header", "X-Search-Tenant-Id")
+            .build();
+        threadPool = new TestThreadPool("test", settings);
+        try {
+            assertThat(threadPool.requestHeaders(), containsInAnyOrder("X-Tenant-Id", "X-Search-Tenant-Id"));
+        } finally {
+            terminate(threadPool);
+        }
+    }
 }
@@ -30,6 +30,7 @@ import org.elasticsearch.search.lookup.LeafSearchLookup;
 import org.elasticsearch.search.lookup.SearchLookup;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -109,6 +110,9 @@ public class MockScriptEngine implements ScriptEngine {
         } else if (context.instanceClazz.equals(SimilarityWeightScript.class)) {
             SimilarityWeightScript.Factory factory = mockCompiled::createSimilarityWeightScript;
             return context.factoryClazz.cast(factory);
+        } else if (context.instanceClazz.equals(BucketAggregationScript.class)) {
+            BucketAggregationScript.Factory factory = mockCompiled::createBucketAggregationScript;
+            return context.factoryClazz.cast(factory);
         }
         throw new IllegalArgumentException("mock script engine does not know how to handle context [" + context.name + "]");
     }
@@ -169,6 +173,24 @@ public class MockScriptEngine implements ScriptEngine {
         public SimilarityWeightScript createSimilarityWeightScript() {
             return new MockSimilarityWeightScript(script != null ? script : ctx -> 42d);
         }
+
+        public BucketAggregationScript createBucketAggregationScript(Map<String, Object> params) {
+            return new BucketAggregationScript(params) {
+                @Override
+                public void execute(int numBuckets, Map<String, double[]> variables, Map<String, BitSet> missing, Results results) {
+                    for (int bucket = 0; bucket < numBuckets; bucket++) {
+                        // a new script per bucket so that each bucket starts from the original parameters
+                        ExecutableScript executableScript = createExecutableScript(params);
+                        for (Map.Entry<String, double[]> variable : variables.entrySet()) {
+                            BitSet missingValues = missing.get(variable.getKey());
+                            boolean isMissing = missingValues != null && missingValues.get(bucket);
+                            executableScript.setNextVar(variable.getKey(), isMissing ? null : variable.getValue()[bucket]);
+                        }
+                        setResult(results, bucket, executableScript.run());
+                    }
+                }
+            };
+        }
     }
 
     public class MockExecutableScript implements ExecutableScript {
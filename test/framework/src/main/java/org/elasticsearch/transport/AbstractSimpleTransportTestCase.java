@@ -35,6 +35,7 @@ import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.network.NetworkService;
 import org.elasticsearch.common.network.NetworkUtils;
 import org.elasticsearch.common.settings.ClusterSettings;
@@ -90,6 +91,7 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.startsWith;
 
@@ -115,6 +117,14 @@ public abstract class AbstractSimpleTransportTestCase extends ESTestCase {
         return 13;
     }
 
+    /**
+     * Whether the transports built by {@link #build} read requests on the executor of their handler rather than on the network thread,
+     * see {@link TcpTransport#DESERIALIZE_REQUESTS_ON_EXECUTOR}.
+     */
+    protected boolean deserializesRequestsOnExecutor() {
+        return false;
+    }
+
     @Override
     @Before
     public void setUp() throws Exception {
@@ -618,6 +628,49 @@ public abstract class AbstractSimpleTransportTestCase extends ESTestCase {
         }
     }
 
+    public void testFailToReadRequest() {
+        final AtomicReference<String> readThread = new AtomicReference<>();
+        serviceA.registerRequestHandler("failToRead", () -> new StringMessageRequest() {
+                @Override
+                public void readFrom(StreamInput in) throws IOException {
+                    super.readFrom(in);
+                    readThread.set(Thread.currentThread().getName());
+                    throw new IllegalArgumentException("failed to read the request");
+                }
+            }, ThreadPool.Names.GENERIC, (request, channel) -> fail("a request that could not be read must not be handled"));
+
+        TransportFuture<StringMessageResponse> res = serviceB.submitRequest(nodeA, "failToRead",
+            new StringMessageRequest("moshe"), TransportRequestOptions.builder().withCompress(randomBoolean()).build(),
+            new TransportResponseHandler<StringMessageResponse>() {
+                @Override
+                public StringMessageResponse newInstance() {
+                    return new StringMessageResponse();
+                }
+
+                @Override
+                public String executor() {
+                    return ThreadPool.Names.GENERIC;
+                }
+
+                @Override
+                public void handleResponse(StringMessageResponse response) {
+                    fail("got response instead of exception");
+                }
+
+                @Override
+                public void handleException(TransportException exp) {
+                }
+            });
+
+        TransportException e = expectThrows(TransportException.class, res::txGet);
+        assertThat(e.getCause().getMessage(), equalTo("illegal_argument_exception: failed to read the request"));
+        if (deserializesRequestsOnExecutor()) {
+            assertThat(readThread.get(), containsString("[" + ThreadPool.Names.GENERIC + "]"));
+        } else {
+            assertThat(readThread.get(), not(containsString("[" + ThreadPool.Names.GENERIC + "]")));
+        }
+    }
+
     public void testDisconnectListener() throws Exception {
         final CountDownLatch latch = new CountDownLatch(1);
         TransportConnectionListener disconnectListener = new TransportConnectionListener() {
@@ -1976,10 +2029,10 @@ public abstract class AbstractSimpleTransportTestCase extends ESTestCase {
             new NoneCircuitBreakerService(), namedWriteableRegistry, new NetworkService(Collections.emptyList())) {
             @Override
             protected String handleRequest(TcpChannel mockChannel, String profileName, StreamInput stream, long requestId,
-                                           int messageLengthBytes, Version version, InetSocketAddress remoteAddress, byte status)
-                throws IOException {
+                                           int messageLengthBytes, Version version, InetSocketAddress remoteAddress, byte status,
+                                           java.util.function.Supplier<Releasable> retainer) throws IOException {
                 return super.handleRequest(mockChannel, profileName, stream, requestId, messageLengthBytes, version, remoteAddress,
-                    (byte) (status & ~(1 << 3))); // we flip the isHandshake bit back and act like the handler is not found
+                    (byte) (status & ~(1 << 3)), retainer); // we flip the isHandshake bit back and act like the handler is not found
             }
         };
 
@@ -155,7 +155,8 @@ public class MockTcpTransport extends TcpTransport {
             output.write(minimalHeader);
             output.writeInt(msgSize);
             output.write(buffer);
-            consumeNetworkReads(mockChannel, output.bytes());
+            // every message is read into its own buffer, nothing needs to be done to retain it
+            consumeNetworkReads(mockChannel, output.bytes(), () -> () -> {});
         }
     }
 
@@ -6,12 +6,14 @@
 package org.elasticsearch.xpack.sql.execution.search;
 
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.PriorityQueue;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.ShardSearchFailure;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.CollectionUtils;
@@ -21,6 +23,7 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.Aggregation;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation.Bucket;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
 import org.elasticsearch.search.aggregations.bucket.filter.Filters;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.xpack.sql.SqlIllegalArgumentException;
@@ -37,6 +40,7 @@ import org.elasticsearch.xpack.sql.expression.function.scalar.processor.definiti
 import org.elasticsearch.xpack.sql.expression.function.scalar.processor.definition.ProcessorDefinition;
 import org.elasticsearch.xpack.sql.expression.function.scalar.processor.definition.ReferenceInput;
 import org.elasticsearch.xpack.sql.querydsl.agg.Aggs;
+import org.elasticsearch.xpack.sql.querydsl.container.ColumnSort;
 import org.elasticsearch.xpack.sql.querydsl.container.ComputedRef;
 import org.elasticsearch.xpack.sql.querydsl.container.GlobalCountRef;
 import org.elasticsearch.xpack.sql.querydsl.container.GroupByRef;
@@ -44,6 +48,7 @@ import org.elasticsearch.xpack.sql.querydsl.container.MetricAggRef;
 import org.elasticsearch.xpack.sql.querydsl.container.QueryContainer;
 import org.elasticsearch.xpack.sql.querydsl.container.ScriptFieldRef;
 import org.elasticsearch.xpack.sql.querydsl.container.SearchHitFieldRef;
+import org.elasticsearch.xpack.sql.querydsl.container.Sort.Direction;
 import org.elasticsearch.xpack.sql.session.Configuration;
 import org.elasticsearch.xpack.sql.session.Rows;
 import org.elasticsearch.xpack.sql.session.SchemaRowSet;
@@ -52,10 +57,12 @@ import org.elasticsearch.xpack.sql.util.StringUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 // TODO: add retry/back-off
 public class Querier {
@@ -98,6 +105,13 @@ public class Querier {
         if (query.isAggsOnly()) {
             if (query.aggs().useImplicitGroupBy()) {
                 l = new ImplicitGroupActionListener(listener, client, timeout, schema, query, search);
+            } else if (query.columnSorts().isEmpty() == false) {
+                if (query.limit() > LocalAggregationSorterListener.MAXIMUM_SIZE) {
+                    listener.onFailure(new SqlIllegalArgumentException("The maximum LIMIT for aggregate sorting is [{}], received [{}]",
+                            LocalAggregationSorterListener.MAXIMUM_SIZE, query.limit()));
+                    return;
+                }
+                l = new LocalAggregationSorterListener(listener, client, timeout, schema, query, search);
             } else {
                 l = new CompositeActionListener(listener, client, timeout, schema, query, search);
             }
@@ -228,6 +242,122 @@ public class Querier {
         }
     }
 
+    /**
+     * Dedicated listener for group-by queries ordered by an aggregate.
+     * Composite aggs return the groups ordered by their keys so all the groups are paged through, keeping only the top ones
+     * in a bounded queue which are then returned in one page.
+     */
+    static class LocalAggregationSorterListener extends BaseAggActionListener {
+
+        // maximum number of groups kept in memory, which is also the maximum LIMIT
+        static final int MAXIMUM_SIZE = 10000;
+
+        private final AggSortingQueue queue;
+        // without a LIMIT all the groups are returned so none of them can be dropped
+        private final boolean unbounded;
+        private List<BucketExtractor> extractors;
+
+        LocalAggregationSorterListener(ActionListener<SchemaRowSet> listener, Client client, TimeValue keepAlive,
+                Schema schema, QueryContainer query, SearchRequest request) {
+            super(listener, client, keepAlive, schema, query, request);
+
+            unbounded = query.limit() < 0;
+            queue = new AggSortingQueue(unbounded ? MAXIMUM_SIZE : query.limit(), query.columnSorts());
+        }
+
+        @Override
+        protected void handleResponse(SearchResponse response, ActionListener<SchemaRowSet> listener) {
+            CompositeAggregation composite = null;
+            if (response.getAggregations().asList().size() > 0) {
+                composite = CompositeAggregationCursor.getComposite(response);
+            }
+            List<? extends CompositeAggregation.Bucket> buckets = composite != null ? composite.getBuckets() : emptyList();
+
+            if (extractors == null) {
+                extractors = initBucketExtractors(response);
+            }
+
+            for (CompositeAggregation.Bucket bucket : buckets) {
+                Object[] row = new Object[extractors.size()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = extractors.get(i).extract(bucket);
+                }
+                if (queue.add(row) && unbounded) {
+                    throw new SqlIllegalArgumentException("Sorting on aggregates without a LIMIT supports at most [{}] groups",
+                            MAXIMUM_SIZE);
+                }
+            }
+
+            // keep paging until all the groups have been seen
+            if (buckets.isEmpty() == false && composite.afterKey() != null) {
+                CompositeAggregationCursor.updateCompositeAfterKey(response, request.source());
+                client.search(request, this);
+            } else {
+                listener.onResponse(Rows.of(schema, queue.asList()));
+            }
+        }
+    }
+
+    /**
+     * Bounded queue keeping the top rows according to the given sorts. The row to drop next is at its head.
+     */
+    static class AggSortingQueue extends PriorityQueue<Tuple<Object[], Integer>> {
+
+        private final List<ColumnSort> sorts;
+        // arrival order, used to keep the order of the groups (that of their keys) for rows that sort the same
+        private int counter = 0;
+
+        AggSortingQueue(int maxSize, List<ColumnSort> sorts) {
+            super(maxSize);
+            this.sorts = sorts;
+        }
+
+        /**
+         * @return whether a row had to be dropped
+         */
+        boolean add(Object[] row) {
+            return insertWithOverflow(new Tuple<>(row, counter++)) != null;
+        }
+
+        // the lesser rows are the ones coming last
+        @Override
+        protected boolean lessThan(Tuple<Object[], Integer> a, Tuple<Object[], Integer> b) {
+            for (ColumnSort sort : sorts) {
+                int cmp = compare(a.v1()[sort.column()], b.v1()[sort.column()], sort.direction());
+                if (cmp != 0) {
+                    return cmp > 0;
+                }
+            }
+            return a.v2() > b.v2();
+        }
+
+        /**
+         * Empties the queue, returning its rows in order.
+         */
+        List<List<?>> asList() {
+            List<?>[] rows = new List<?>[size()];
+            for (int i = rows.length - 1; i >= 0; i--) {
+                rows[i] = Arrays.asList(pop().v1());
+            }
+            return Arrays.asList(rows);
+        }
+
+        // nulls come last regardless of the direction, like the missing values of a search sort
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        private static int compare(Object left, Object right, Direction direction) {
+            if (left == null || right == null) {
+                return left == null ? (right == null ? 0 : 1) : -1;
+            }
+            int cmp;
+            if (left instanceof Number && right instanceof Number && left.getClass() != right.getClass()) {
+                cmp = Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+            } else {
+                cmp = ((Comparable) left).compareTo(right);
+            }
+            return direction == Direction.ASC ? cmp : -cmp;
+        }
+    }
+
     abstract static class BaseAggActionListener extends BaseActionListener {
         final QueryContainer query;
         final SearchRequest request;
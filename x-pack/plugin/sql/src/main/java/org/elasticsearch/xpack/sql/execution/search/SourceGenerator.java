@@ -71,7 +71,9 @@ public abstract class SourceGenerator {
 
         // set page size
         if (size != null) {
-            int sz = container.limit() > 0 ? Math.min(container.limit(), size) : size;
+            // groups sorted locally need to be all retrieved, regardless of the limit
+            boolean limitApplies = container.limit() > 0 && container.columnSorts().isEmpty();
+            int sz = limitApplies ? Math.min(container.limit(), size) : size;
 
             if (source.size() == -1) {
                 source.size(sz);
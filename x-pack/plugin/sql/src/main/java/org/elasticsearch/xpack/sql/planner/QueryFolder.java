@@ -18,6 +18,7 @@ import org.elasticsearch.xpack.sql.expression.function.Function;
 import org.elasticsearch.xpack.sql.expression.function.Functions;
 import org.elasticsearch.xpack.sql.expression.function.ScoreAttribute;
 import org.elasticsearch.xpack.sql.expression.function.aggregate.AggregateFunction;
+import org.elasticsearch.xpack.sql.expression.function.aggregate.AggregateFunctionAttribute;
 import org.elasticsearch.xpack.sql.expression.function.aggregate.CompoundNumericAggregate;
 import org.elasticsearch.xpack.sql.expression.function.aggregate.Count;
 import org.elasticsearch.xpack.sql.expression.function.aggregate.InnerAggregate;
@@ -45,6 +46,7 @@ import org.elasticsearch.xpack.sql.querydsl.agg.Aggs;
 import org.elasticsearch.xpack.sql.querydsl.agg.GroupByKey;
 import org.elasticsearch.xpack.sql.querydsl.agg.LeafAgg;
 import org.elasticsearch.xpack.sql.querydsl.container.AttributeSort;
+import org.elasticsearch.xpack.sql.querydsl.container.ColumnSort;
 import org.elasticsearch.xpack.sql.querydsl.container.ComputedRef;
 import org.elasticsearch.xpack.sql.querydsl.container.GlobalCountRef;
 import org.elasticsearch.xpack.sql.querydsl.container.GroupByRef;
@@ -64,6 +66,7 @@ import org.joda.time.DateTimeZone;
 
 import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.atomic.AtomicReference;
@@ -423,6 +426,16 @@ class QueryFolder extends RuleExecutor<PhysicalPlan> {
                 EsQueryExec exec = (EsQueryExec) plan.child();
                 QueryContainer qContainer = exec.queryContainer();
 
+                // composite aggs return the groups ordered by their keys so ordering by an aggregate (and anything
+                // ordered after it) is done once the groups are retrieved, keeping only the top ones if there's a limit
+                if (ordersByAggregate(plan, qContainer)) {
+                    for (Order order : plan.order()) {
+                        int column = columnFor(order, exec);
+                        qContainer = qContainer.sort(new ColumnSort(column, Direction.from(order.direction())));
+                    }
+                    return exec.with(qContainer);
+                }
+
                 for (Order order : plan.order()) {
                     Direction direction = Direction.from(order.direction());
 
@@ -474,6 +487,37 @@ class QueryFolder extends RuleExecutor<PhysicalPlan> {
             }
             return plan;
         }
+
+        private static boolean ordersByAggregate(OrderExec plan, QueryContainer qContainer) {
+            if (qContainer.aggs().groups().isEmpty()) {
+                return false;
+            }
+            for (Order order : plan.order()) {
+                Attribute attr = ((NamedExpression) order.child()).toAttribute();
+                if (qContainer.aliases().getOrDefault(attr, attr) instanceof AggregateFunctionAttribute) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int columnFor(Order order, EsQueryExec exec) {
+            QueryContainer qContainer = exec.queryContainer();
+            Attribute attr = ((NamedExpression) order.child()).toAttribute();
+            attr = qContainer.aliases().getOrDefault(attr, attr);
+
+            // the columns of a group-by are added in the order of its output
+            List<Attribute> output = exec.output();
+            if (output.size() == qContainer.columns().size()) {
+                for (int i = 0; i < output.size(); i++) {
+                    Attribute column = qContainer.aliases().getOrDefault(output.get(i), output.get(i));
+                    if (column.id().equals(attr.id())) {
+                        return i;
+                    }
+                }
+            }
+            throw new FoldingException(order, "Cannot find the column to order by [{}]", Expressions.name(order.child()));
+        }
     }
 
 
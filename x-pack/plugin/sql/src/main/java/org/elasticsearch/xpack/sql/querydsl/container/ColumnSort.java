@@ -0,0 +1,51 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.sql.querydsl.container;
+
+import java.util.Objects;
+
+/**
+ * Sort on a column of the results of a group-by, applied once the groups have been retrieved.
+ * Used when ordering by an aggregate since composite aggregations can only return their buckets in the order of their keys.
+ */
+public class ColumnSort extends Sort {
+
+    private final int column;
+
+    public ColumnSort(int column, Direction direction) {
+        super(direction);
+        this.column = column;
+    }
+
+    public int column() {
+        return column;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(column, direction());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        ColumnSort other = (ColumnSort) obj;
+        return Objects.equals(direction(), other.direction())
+                && column == other.column;
+    }
+
+    @Override
+    public String toString() {
+        return column + " " + direction();
+    }
+}
@@ -119,6 +119,19 @@ public class QueryContainer {
         return limit;
     }
 
+    /**
+     * @return the sorts to apply on the groups once they have all been retrieved, empty if the aggregations return them in order
+     */
+    public List<ColumnSort> columnSorts() {
+        List<ColumnSort> columnSorts = new ArrayList<>();
+        for (Sort s : sort) {
+            if (s instanceof ColumnSort) {
+                columnSorts.add((ColumnSort) s);
+            }
+        }
+        return columnSorts;
+    }
+
     public boolean isAggsOnly() {
         return aggsOnly;
     }
@@ -350,7 +363,13 @@ public class QueryContainer {
         try (XContentBuilder builder = JsonXContent.contentBuilder()) {
             builder.humanReadable(true).prettyPrint();
             SourceGenerator.sourceBuilder(this, null, null).toXContent(builder, ToXContent.EMPTY_PARAMS);
-            return Strings.toString(builder);
+            String source = Strings.toString(builder);
+            List<ColumnSort> columnSorts = columnSorts();
+            if (columnSorts.isEmpty()) {
+                return source;
+            }
+            // the groups are sorted locally so make that visible when explaining the plan
+            return source + "\nsorted locally on columns " + columnSorts + (limit > -1 ? ", keeping the top [" + limit + "] groups" : "");
         } catch (IOException e) {
             throw new RuntimeException("error rendering", e);
         }
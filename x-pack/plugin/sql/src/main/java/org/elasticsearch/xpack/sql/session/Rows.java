@@ -39,6 +39,13 @@ public abstract class Rows {
         return new ListRowSetCursor(schema, values);
     }
 
+    /**
+     * Row set over rows that may have more values than the schema, like the hidden columns of a group-by.
+     */
+    public static SchemaRowSet of(Schema schema, List<List<?>> values) {
+        return values.isEmpty() ? empty(schema) : new ListRowSetCursor(schema, values);
+    }
+
     public static SchemaRowSet singleton(List<Attribute> attrs, Object... values) {
         return singleton(schema(attrs), values);
     }
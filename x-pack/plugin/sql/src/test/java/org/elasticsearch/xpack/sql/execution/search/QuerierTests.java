@@ -0,0 +1,52 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.sql.execution.search;
+
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.sql.execution.search.Querier.AggSortingQueue;
+import org.elasticsearch.xpack.sql.querydsl.container.ColumnSort;
+import org.elasticsearch.xpack.sql.querydsl.container.Sort.Direction;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+public class QuerierTests extends ESTestCase {
+
+    public void testAggSortingQueueKeepsTopRows() {
+        AggSortingQueue queue = new AggSortingQueue(3, singletonList(new ColumnSort(1, Direction.DESC)));
+        boolean dropped = false;
+        for (int i = 0; i < 10; i++) {
+            dropped |= queue.add(new Object[] { "group" + i, (long) (i % 5) });
+        }
+        assertTrue(dropped);
+
+        List<List<?>> rows = queue.asList();
+        // ties keep the order in which the groups were received
+        assertEquals(Arrays.asList(
+                Arrays.asList("group4", 4L),
+                Arrays.asList("group9", 4L),
+                Arrays.asList("group3", 3L)), rows);
+        assertEquals(0, queue.size());
+    }
+
+    public void testAggSortingQueueMultipleSorts() {
+        AggSortingQueue queue = new AggSortingQueue(10, Arrays.asList(
+                new ColumnSort(1, Direction.ASC), new ColumnSort(0, Direction.DESC)));
+        assertFalse(queue.add(new Object[] { "a", 2.0 }));
+        assertFalse(queue.add(new Object[] { "b", 1.0 }));
+        assertFalse(queue.add(new Object[] { "c", 2.0 }));
+        assertFalse(queue.add(new Object[] { "d", null }));
+
+        // nulls come last
+        assertEquals(Arrays.asList(
+                Arrays.asList("b", 1.0),
+                Arrays.asList("c", 2.0),
+                Arrays.asList("a", 2.0),
+                Arrays.asList("d", null)), queue.asList());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.sql.execution.search;
+
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.sql.execution.search.extractor.ConstantExtractor;
+import org.elasticsearch.xpack.sql.execution.search.extractor.FieldHitExtractor;
+import org.elasticsearch.xpack.sql.execution.search.extractor.HitExtractor;
+import org.elasticsearch.xpack.sql.session.Cursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+
+public class SearchHitRowSetTests extends ESTestCase {
+
+    public void testExtractsPage() {
+        int numHits = between(1, 50);
+        SearchHit[] hits = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            hits[i] = new SearchHit(i);
+            Map<String, DocumentField> fields = new HashMap<>();
+            fields.put("a", new DocumentField("a", singletonList((long) i)));
+            if (i % 2 == 0) {
+                fields.put("b", new DocumentField("b", singletonList("value" + i)));
+            }
+            hits[i].fields(fields);
+        }
+        List<HitExtractor> extractors = Arrays.asList(
+            new FieldHitExtractor("a", true), new ConstantExtractor("c"), new FieldHitExtractor("b", true));
+        int limit = randomBoolean() ? -1 : between(1, numHits);
+        int expectedSize = limit < 0 ? numHits : limit;
+
+        SearchHitRowSet rowSet = new SearchHitRowSet(extractors, hits, limit, null);
+        assertEquals(expectedSize, rowSet.size());
+        assertEquals(3, rowSet.columnCount());
+        assertSame(Cursor.EMPTY, rowSet.nextPageCursor());
+
+        for (int pass = 0; pass < 2; pass++) {
+            List<List<Object>> rows = new ArrayList<>();
+            rowSet.forEachRow(row -> {
+                List<Object> values = new ArrayList<>();
+                row.forEachColumn(values::add);
+                rows.add(values);
+            });
+            assertEquals(expectedSize, rows.size());
+            for (int i = 0; i < expectedSize; i++) {
+                assertEquals(Arrays.asList((long) i, "c", i % 2 == 0 ? "value" + i : null), rows.get(i));
+            }
+            rowSet.reset();
+        }
+    }
+}